@@ -2,6 +2,7 @@ package com.groceryapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the Grocery App
@@ -14,6 +15,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - grocery-api: REST controllers and main application (this module)
  */
 @SpringBootApplication(scanBasePackages = "com.groceryapp")
+@EnableScheduling
 public class GroceryApplication {
 
 	public static void main(String[] args) {
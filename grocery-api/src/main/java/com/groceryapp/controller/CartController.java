@@ -2,6 +2,7 @@ package com.groceryapp.controller;
 
 import com.groceryapp.common.constants.AppConstants;
 import com.groceryapp.common.dto.ApiResponseDto;
+import com.groceryapp.common.dto.CartBatchRequestDto;
 import com.groceryapp.common.dto.CartDto;
 import com.groceryapp.common.dto.CartItemDto;
 import com.groceryapp.service.CartService;
@@ -41,6 +42,15 @@ public class CartController {
         return ResponseEntity.ok(ApiResponseDto.success("Item added to cart successfully", cart));
     }
     
+    @PostMapping("/{customerId}/items:batch")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('CUSTOMER')")
+    public ResponseEntity<ApiResponseDto<CartDto>> applyBatch(@PathVariable String customerId,
+                                                             @Valid @RequestBody CartBatchRequestDto request) {
+        log.info("POST request to apply {} cart operations for customer: {}", request.getOperations().size(), customerId);
+        CartDto cart = cartService.applyBatch(customerId, request.getOperations());
+        return ResponseEntity.ok(ApiResponseDto.success("Cart updated successfully", cart));
+    }
+    
     @PutMapping("/{customerId}/items/{productId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('CUSTOMER')")
     public ResponseEntity<ApiResponseDto<CartDto>> updateItemQuantity(@PathVariable String customerId,
@@ -0,0 +1,72 @@
+package com.groceryapp.controller;
+
+import com.groceryapp.common.constants.AppConstants;
+import com.groceryapp.common.dto.CategoryDto;
+import com.groceryapp.service.CategoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+/**
+ * REST Controller for Category operations
+ */
+@Slf4j
+@RestController
+@RequestMapping(AppConstants.API_BASE_PATH + AppConstants.CATEGORIES_PATH)
+@RequiredArgsConstructor
+public class CategoryController {
+    
+    private final CategoryService categoryService;
+    
+    @GetMapping
+    public ResponseEntity<List<CategoryDto>> getAllCategories() {
+        log.info("GET request to fetch all categories");
+        List<CategoryDto> categories = categoryService.getAllCategories();
+        return ResponseEntity.ok(categories);
+    }
+    
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryDto>> getCategoryTree() {
+        log.info("GET request to fetch category tree");
+        List<CategoryDto> tree = categoryService.getCategoryTree();
+        return ResponseEntity.ok(tree);
+    }
+    
+    @GetMapping("/{idOrSlug}")
+    public ResponseEntity<CategoryDto> getCategory(@PathVariable String idOrSlug) {
+        log.info("GET request to fetch category: {}", idOrSlug);
+        CategoryDto category = categoryService.getCategory(idOrSlug);
+        return ResponseEntity.ok(category);
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CategoryDto> createCategory(@Valid @RequestBody CategoryDto categoryDto) {
+        log.info("POST request to create category: {}", categoryDto.getName());
+        CategoryDto createdCategory = categoryService.createCategory(categoryDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdCategory);
+    }
+    
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CategoryDto> updateCategory(@PathVariable String id,
+                                                      @Valid @RequestBody CategoryDto categoryDto) {
+        log.info("PUT request to update category with id: {}", id);
+        CategoryDto updatedCategory = categoryService.updateCategory(id, categoryDto);
+        return ResponseEntity.ok(updatedCategory);
+    }
+    
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteCategory(@PathVariable String id) {
+        log.info("DELETE request to delete category with id: {}", id);
+        categoryService.deleteCategory(id);
+        return ResponseEntity.noContent().build();
+    }
+}
\ No newline at end of file
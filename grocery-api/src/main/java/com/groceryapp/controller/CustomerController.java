@@ -2,6 +2,7 @@ package com.groceryapp.controller;
 
 import com.groceryapp.common.constants.AppConstants;
 import com.groceryapp.common.dto.ApiResponseDto;
+import com.groceryapp.common.dto.CursorPageDto;
 import com.groceryapp.common.dto.CustomerDto;
 import com.groceryapp.service.CustomerService;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,15 @@ public class CustomerController {
         return ResponseEntity.ok(ApiResponseDto.success(customers));
     }
     
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<CustomerDto>>> getCustomersPage(@RequestParam(required = false) String cursor,
+                                                                                       @RequestParam(required = false) Integer limit) {
+        log.info("GET request to fetch customers page after cursor: {}", cursor);
+        CursorPageDto<CustomerDto> page = customerService.getCustomersPage(cursor, limit);
+        return ResponseEntity.ok(ApiResponseDto.success(page));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('CUSTOMER')")
     public ResponseEntity<ApiResponseDto<CustomerDto>> getCustomerById(@PathVariable String id) {
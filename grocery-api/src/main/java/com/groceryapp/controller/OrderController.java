@@ -2,16 +2,24 @@ package com.groceryapp.controller;
 
 import com.groceryapp.common.constants.AppConstants;
 import com.groceryapp.common.dto.ApiResponseDto;
+import com.groceryapp.common.dto.CursorPageDto;
 import com.groceryapp.common.dto.OrderDto;
+import com.groceryapp.common.dto.OrderIngestionStatusDto;
+import com.groceryapp.common.dto.OrderSummaryDto;
+import com.groceryapp.service.OrderIdempotencyService;
+import com.groceryapp.service.OrderIngestionQueue;
 import com.groceryapp.service.OrderService;
+import com.groceryapp.web.NdjsonStreamingResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -24,6 +32,9 @@ import java.util.List;
 public class OrderController {
     
     private final OrderService orderService;
+    private final OrderIngestionQueue orderIngestionQueue;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final NdjsonStreamingResponse ndjsonResponse;
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
@@ -33,6 +44,31 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponseDto.success(orders));
     }
     
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<OrderDto>>> getOrdersPage(@RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(required = false) Integer limit) {
+        log.info("GET request to fetch orders page after cursor: {}", cursor);
+        CursorPageDto<OrderDto> page = orderService.getOrdersPage(cursor, limit);
+        return ResponseEntity.ok(ApiResponseDto.success(page));
+    }
+    
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<OrderSummaryDto>>> getOrderSummariesPage(@RequestParam(required = false) String cursor,
+                                                                                                @RequestParam(required = false) Integer limit) {
+        log.info("GET request to fetch order summaries page after cursor: {}", cursor);
+        CursorPageDto<OrderSummaryDto> page = orderService.getOrderSummariesPage(cursor, limit);
+        return ResponseEntity.ok(ApiResponseDto.success(page));
+    }
+    
+    @GetMapping(value = "/export", produces = AppConstants.NDJSON_MEDIA_TYPE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        log.info("GET request to export all orders");
+        return ndjsonResponse.of(orderService::exportOrders);
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('CUSTOMER')")
     public ResponseEntity<ApiResponseDto<OrderDto>> getOrderById(@PathVariable String id) {
@@ -41,6 +77,14 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponseDto.success(order));
     }
     
+    @GetMapping("/number/{orderNumber}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('CUSTOMER')")
+    public ResponseEntity<ApiResponseDto<OrderDto>> getOrderByNumber(@PathVariable String orderNumber) {
+        log.info("GET request to fetch order with number: {}", orderNumber);
+        OrderDto order = orderService.getOrderByNumber(orderNumber);
+        return ResponseEntity.ok(ApiResponseDto.success(order));
+    }
+    
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('CUSTOMER')")
     public ResponseEntity<ApiResponseDto<List<OrderDto>>> getOrdersByCustomerId(@PathVariable String customerId) {
@@ -49,6 +93,14 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponseDto.success(orders));
     }
     
+    @GetMapping("/customer/{customerId}/summary")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('CUSTOMER')")
+    public ResponseEntity<ApiResponseDto<List<OrderSummaryDto>>> getOrderSummariesByCustomerId(@PathVariable String customerId) {
+        log.info("GET request to fetch order summaries for customer: {}", customerId);
+        List<OrderSummaryDto> orders = orderService.getOrderSummariesByCustomerId(customerId);
+        return ResponseEntity.ok(ApiResponseDto.success(orders));
+    }
+    
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
     public ResponseEntity<ApiResponseDto<List<OrderDto>>> getOrdersByStatus(@PathVariable String status) {
@@ -59,13 +111,32 @@ public class OrderController {
     
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<ApiResponseDto<OrderDto>> createOrder(@Valid @RequestBody OrderDto orderDto) {
+    public ResponseEntity<ApiResponseDto<OrderDto>> createOrder(@Valid @RequestBody OrderDto orderDto,
+                                                                @RequestHeader(value = AppConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("POST request to create order for customer: {}", orderDto.getCustomerId());
-        OrderDto createdOrder = orderService.createOrder(orderDto);
+        OrderDto createdOrder = orderIdempotencyService.createOrder(idempotencyKey, orderDto);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponseDto.success("Order created successfully", createdOrder));
     }
     
+    @PostMapping("/async")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<ApiResponseDto<OrderIngestionStatusDto>> createOrderAsync(@Valid @RequestBody OrderDto orderDto) {
+        log.info("POST request to queue order for customer: {}", orderDto.getCustomerId());
+        OrderIngestionStatusDto status = orderIngestionQueue.submit(orderDto);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create(AppConstants.API_BASE_PATH + "/orders/async/" + status.getOrderId()))
+                .body(ApiResponseDto.success("Order accepted for processing", status));
+    }
+    
+    @GetMapping("/async/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('CUSTOMER')")
+    public ResponseEntity<ApiResponseDto<OrderIngestionStatusDto>> getOrderIngestionStatus(@PathVariable String id) {
+        log.info("GET request to fetch status of queued order: {}", id);
+        OrderIngestionStatusDto status = orderIngestionQueue.getStatus(id);
+        return ResponseEntity.ok(ApiResponseDto.success(status));
+    }
+    
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
     public ResponseEntity<ApiResponseDto<OrderDto>> updateOrderStatus(@PathVariable String id, 
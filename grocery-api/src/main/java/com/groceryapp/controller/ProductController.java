@@ -2,18 +2,39 @@ package com.groceryapp.controller;
 
 import com.groceryapp.common.constants.AppConstants;
 import com.groceryapp.common.dto.ProductDto;
+import com.groceryapp.common.dto.BulkImportResultDto;
+import com.groceryapp.common.dto.CursorPageDto;
 import com.groceryapp.common.dto.ExtendedProductDto;
+import com.groceryapp.common.dto.ProductChangesDto;
+import com.groceryapp.common.dto.ProductFacetsDto;
+import com.groceryapp.common.dto.ProductSummaryDto;
+import com.groceryapp.common.enums.ImportFormat;
+import com.groceryapp.common.enums.SearchOperator;
+import com.groceryapp.service.ProductImportService;
 import com.groceryapp.service.ProductService;
+import com.groceryapp.web.ConditionalGet;
+import com.groceryapp.web.NdjsonStreamingResponse;
+import com.groceryapp.web.StockAlertBroadcaster;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -26,21 +47,72 @@ import java.util.List;
 public class ProductController {
     
     private final ProductService productService;
+    private final ProductImportService productImportService;
     private final ObjectMapper objectMapper;
+    private final NdjsonStreamingResponse ndjsonResponse;
+    private final StockAlertBroadcaster stockAlertBroadcaster;
     
     @GetMapping
-    public ResponseEntity<List<ExtendedProductDto>> getAllProducts() {
+    public ResponseEntity<List<ExtendedProductDto>> getAllProducts(WebRequest request) {
         log.info("GET request to fetch all products");
-        List<ExtendedProductDto> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+        return ConditionalGet.respond(request, productService.getCatalogETag(), productService::getAllProducts);
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDto<ExtendedProductDto>> getProductsPage(@RequestParam(required = false) String cursor,
+                                                                             @RequestParam(required = false) Integer limit,
+                                                                             WebRequest request) {
+        log.info("GET request to fetch products page after cursor: {}", cursor);
+        return ConditionalGet.respond(request, productService.getCatalogETag(),
+                () -> productService.getProductsPage(cursor, limit));
+    }
+    
+    @GetMapping("/summary")
+    public ResponseEntity<List<ProductSummaryDto>> getProductSummaries(@RequestParam(required = false) String category,
+                                                                       WebRequest request) {
+        log.info("GET request to fetch product summaries");
+        return ConditionalGet.respond(request, productService.getCatalogETag(),
+                () -> productService.getProductSummaries(category));
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDto> getProductChanges(@RequestParam(required = false) String since,
+                                                               @RequestParam(required = false) Integer limit) {
+        log.info("GET request to fetch product changes since: {}", since);
+        ProductChangesDto changes = productService.getProductChanges(since, limit);
+        return ResponseEntity.ok(changes);
+    }
+    
+    @GetMapping(value = "/export", produces = AppConstants.NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        log.info("GET request to export all products");
+        return ndjsonResponse.of(productService::exportProducts);
+    }
+    
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @PostMapping(value = "/import", consumes = {AppConstants.CSV_MEDIA_TYPE, AppConstants.NDJSON_MEDIA_TYPE})
+    public ResponseEntity<BulkImportResultDto> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                              InputStream body) {
+        log.info("POST request to import products as {}", contentType);
+        ImportFormat format = contentType.isCompatibleWith(MediaType.valueOf(AppConstants.CSV_MEDIA_TYPE))
+                ? ImportFormat.CSV : ImportFormat.NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BulkImportResultDto result = productImportService.importProducts(new InputStreamReader(body, charset), format);
+        return ResponseEntity.ok(result);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ExtendedProductDto> getProductById(@PathVariable String id) {
+    public ResponseEntity<ExtendedProductDto> getProductById(@PathVariable String id, WebRequest request) {
         log.info("GET request to fetch product with id: {}", id);
-        return productService.getProductById(id)
-                .map(product -> ResponseEntity.ok(product))
-                .orElse(ResponseEntity.notFound().build());
+        return ConditionalGet.respond(request, productService.getProductETag(id),
+                () -> productService.getProductById(id));
+    }
+    
+    @GetMapping("/slug/{slug}")
+    public ResponseEntity<ExtendedProductDto> getProductBySlug(@PathVariable String slug, WebRequest request) {
+        log.info("GET request to fetch product with slug: {}", slug);
+        return ConditionalGet.respond(request, productService.getProductETagBySlug(slug),
+                () -> productService.getProductBySlug(slug));
     }
     
     @PostMapping
@@ -83,40 +155,76 @@ public class ProductController {
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ExtendedProductDto>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<ExtendedProductDto>> getProductsByCategory(@PathVariable String category,
+                                                                          WebRequest request) {
         log.info("GET request to fetch products by category: {}", category);
-        List<ExtendedProductDto> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+        return ConditionalGet.respond(request, productService.getCatalogETag(),
+                () -> productService.getProductsByCategory(category));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<ExtendedProductDto>> searchProducts(@RequestParam String q) {
+    public ResponseEntity<List<ExtendedProductDto>> searchProducts(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "AND") SearchOperator operator,
+                                                                   @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                                   WebRequest request) {
         log.info("GET request to search products with query: {}", q);
-        List<ExtendedProductDto> products = productService.searchProducts(q);
-        return ResponseEntity.ok(products);
+        return ConditionalGet.respond(request, productService.getCatalogETag(),
+                () -> productService.searchProducts(q, operator, fuzzy));
+    }
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggestProducts(@RequestParam String prefix,
+                                                        @RequestParam(defaultValue = "10") Integer limit) {
+        List<String> suggestions = productService.getSuggestions(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsDto> getProductFacets(@RequestParam(required = false) String q,
+                                                             @RequestParam(defaultValue = "AND") SearchOperator operator,
+                                                             @RequestParam(required = false) String category,
+                                                             @RequestParam(required = false) BigDecimal minPrice,
+                                                             @RequestParam(required = false) BigDecimal maxPrice,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             WebRequest request) {
+        log.info("GET request to fetch product facets with query: {}", q);
+        return ConditionalGet.respond(request, productService.getCatalogETag(),
+                () -> productService.getProductFacets(q, operator, category, minPrice, maxPrice, cursor, limit));
     }
     
     @GetMapping("/low-stock")
-    public ResponseEntity<List<ExtendedProductDto>> getLowStockProducts(@RequestParam(defaultValue = "10") Integer threshold) {
+    public ResponseEntity<List<ExtendedProductDto>> getLowStockProducts(@RequestParam(required = false) Integer threshold) {
         log.info("GET request to fetch low stock products with threshold: {}", threshold);
         List<ExtendedProductDto> products = productService.getLowStockProducts(threshold);
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping("/out-of-stock")
+    public ResponseEntity<List<ExtendedProductDto>> getOutOfStockProducts() {
+        log.info("GET request to fetch out of stock products");
+        List<ExtendedProductDto> products = productService.getOutOfStockProducts();
+        return ResponseEntity.ok(products);
+    }
+    
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockAlerts() {
+        log.info("GET request to stream stock alerts");
+        return stockAlertBroadcaster.subscribe();
+    }
+    
     // Backward compatibility endpoints
     @GetMapping("/basic")
-    public ResponseEntity<List<ProductDto>> getAllProductsBasic() {
+    public ResponseEntity<List<ProductDto>> getAllProductsBasic(WebRequest request) {
         log.info("GET request to fetch all products (basic)");
-        List<ProductDto> products = productService.getAllProductsBasic();
-        return ResponseEntity.ok(products);
+        return ConditionalGet.respond(request, productService.getCatalogETag(), productService::getAllProductsBasic);
     }
     
     @GetMapping("/{id}/basic")
-    public ResponseEntity<ProductDto> getProductByIdBasic(@PathVariable String id) {
+    public ResponseEntity<ProductDto> getProductByIdBasic(@PathVariable String id, WebRequest request) {
         log.info("GET request to fetch product with id: {} (basic)", id);
-        return productService.getProductByIdBasic(id)
-                .map(product -> ResponseEntity.ok(product))
-                .orElse(ResponseEntity.notFound().build());
+        return ConditionalGet.respond(request, productService.getProductETag(id),
+                () -> productService.getProductByIdBasic(id));
     }
     
     private ExtendedProductDto parseExtendedProductDto(JsonNode json) {
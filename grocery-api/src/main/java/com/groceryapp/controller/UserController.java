@@ -2,6 +2,7 @@ package com.groceryapp.controller;
 
 import com.groceryapp.common.constants.AppConstants;
 import com.groceryapp.common.dto.ApiResponseDto;
+import com.groceryapp.common.dto.CursorPageDto;
 import com.groceryapp.common.dto.UserDto;
 import com.groceryapp.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,15 @@ public class UserController {
         return ResponseEntity.ok(ApiResponseDto.success(users));
     }
     
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<UserDto>>> getUsersPage(@RequestParam(required = false) String cursor,
+                                                                               @RequestParam(required = false) Integer limit) {
+        log.info("GET request to fetch users page after cursor: {}", cursor);
+        CursorPageDto<UserDto> page = userService.getUsersPage(cursor, limit);
+        return ResponseEntity.ok(ApiResponseDto.success(page));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('CUSTOMER')")
     public ResponseEntity<ApiResponseDto<UserDto>> getUserById(@PathVariable String id) {
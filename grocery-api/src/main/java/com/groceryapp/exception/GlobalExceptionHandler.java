@@ -2,9 +2,13 @@ package com.groceryapp.exception;
 
 import com.groceryapp.common.dto.ApiResponseDto;
 import com.groceryapp.common.exception.BadRequestException;
+import com.groceryapp.common.exception.ConflictException;
+import com.groceryapp.common.exception.OrderValidationException;
 import com.groceryapp.common.exception.ResourceNotFoundException;
+import com.groceryapp.common.exception.TooManyRequestsException;
 import com.groceryapp.common.exception.UnauthorizedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -40,6 +44,33 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
     
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponseDto<Object>> handleConflictException(
+            ConflictException ex, WebRequest request) {
+        log.error("Conflict: {}", ex.getMessage());
+        ApiResponseDto<Object> response = ApiResponseDto.error(ex.getMessage(), request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+    
+    @ExceptionHandler(OrderValidationException.class)
+    public ResponseEntity<ApiResponseDto<Object>> handleOrderValidationException(
+            OrderValidationException ex, WebRequest request) {
+        log.error("Order validation failed: {}", ex.getErrors());
+        ApiResponseDto<Object> response = ApiResponseDto.error(ex.getMessage(), request.getDescription(false));
+        response.setData(ex.getErrors());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+    
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponseDto<Object>> handleTooManyRequestsException(
+            TooManyRequestsException ex, WebRequest request) {
+        log.warn("Too many requests: {}", ex.getMessage());
+        ApiResponseDto<Object> response = ApiResponseDto.error(ex.getMessage(), request.getDescription(false));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+    
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<ApiResponseDto<Object>> handleUnauthorizedException(
             UnauthorizedException ex, WebRequest request) {
@@ -0,0 +1,46 @@
+package com.groceryapp.web;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET handling for reads with a cheaply computed entity tag.
+ *
+ * The If-None-Match check runs before the body supplier is called, so a 304
+ * costs neither a lookup nor serialization. Responses are marked no-cache so
+ * clients store them and revalidate instead of receiving the default no-store.
+ */
+public final class ConditionalGet {
+    
+    private ConditionalGet() {
+        // Utility class
+    }
+    
+    public static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        // checkNotModified also writes the ETag header in both cases
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body.get());
+    }
+    
+    /**
+     * Variant for single-resource reads: 404 when there is no tag or no body.
+     */
+    public static <T> ResponseEntity<T> respond(WebRequest request, Optional<String> etag, Supplier<Optional<T>> body) {
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return body.get()
+                .map(value -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(value))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.groceryapp.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.common.constants.AppConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Builds newline-delimited JSON responses that are written row by row while the
+ * source is being read, so nothing but the current row is held in memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonStreamingResponse {
+    
+    private static final MediaType NDJSON = MediaType.parseMediaType(AppConstants.NDJSON_MEDIA_TYPE);
+    
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * @param source called on the response thread with a sink that writes one JSON line per value
+     */
+    public <T> ResponseEntity<StreamingResponseBody> of(Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> write(out, source);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+    
+    private <T> void write(OutputStream out, Consumer<Consumer<T>> source) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        try {
+            source.accept(value -> {
+                try {
+                    buffered.write(objectMapper.writeValueAsBytes(value));
+                    buffered.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffered.flush();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.groceryapp.web;
+
+import com.groceryapp.common.dto.StockAlertDto;
+import com.groceryapp.service.StockLevelChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes stock level changes to connected dashboards as server-sent events.
+ *
+ * Events arrive on the thread announcing catalog changes, so sending is handed off
+ * to a single thread; a slow or dropped client never delays a stock update.
+ */
+@Slf4j
+@Component
+public class StockAlertBroadcaster {
+    
+    private final long timeoutMs;
+    
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public StockAlertBroadcaster(@Value("${inventory.alerts.stream-timeout-ms:1800000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+    
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+    
+    @EventListener
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        StockAlertDto alert = new StockAlertDto(event.getProduct().getId(), event.getProduct().getName(),
+                event.getPreviousQuantity(), event.getProduct().getStockQuantity(), event.getLevel().name(),
+                LocalDateTime.now());
+        sender.execute(() -> send(alert));
+    }
+    
+    private void send(StockAlertDto alert) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("stock-level").data(alert));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping stock alert subscriber: {}", e.getMessage());
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
\ No newline at end of file
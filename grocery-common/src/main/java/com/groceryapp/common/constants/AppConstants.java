@@ -13,8 +13,19 @@ public final class AppConstants {
     public static final String API_BASE_PATH = "/api";
     public static final String PRODUCTS_PATH = "/products";
     public static final String CUSTOMERS_PATH = "/customers";
+    public static final String CATEGORIES_PATH = "/categories";
     public static final String AUTH_PATH = "/auth";
     
+    // Media Types
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    
+    // Pagination
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_CHANGES_PAGE_SIZE = 500;
+    public static final int MAX_CHANGES_PAGE_SIZE = 1000;
+    
     // Error Messages
     public static final String PRODUCT_NOT_FOUND = "Product not found with id: ";
     public static final String CUSTOMER_NOT_FOUND = "Customer not found with id: ";
@@ -28,4 +39,7 @@ public final class AppConstants {
     // JWT
     public static final String JWT_HEADER = "Authorization";
     public static final String JWT_PREFIX = "Bearer ";
+    
+    // Idempotency
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the outcome of a bulk product import
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDto {
+    
+    private long totalRows;
+    
+    private long inserted;
+    
+    private long updated;
+    
+    private long failed;
+    
+    // Only the first errors are listed; failed holds the full count
+    private List<ImportRowErrorDto> errors = new ArrayList<>();
+}
\ No newline at end of file
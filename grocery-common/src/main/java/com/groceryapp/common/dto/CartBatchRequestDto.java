@@ -0,0 +1,24 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Data Transfer Object for a batch of cart operations applied in order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequestDto {
+    
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 200, message = "At most 200 operations are allowed per batch")
+    @Valid
+    private List<CartOperationDto> operations;
+}
\ No newline at end of file
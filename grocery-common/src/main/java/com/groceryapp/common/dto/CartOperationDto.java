@@ -0,0 +1,27 @@
+package com.groceryapp.common.dto;
+
+import com.groceryapp.common.enums.CartOperationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object for one operation of a batch cart update
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationDto {
+    
+    @NotNull(message = "Operation type is required")
+    private CartOperationType type;
+    
+    @NotBlank(message = "Product ID is required")
+    private String productId;
+    
+    // Units to add for ADD, the new quantity for UPDATE; ignored for REMOVE
+    private Integer quantity;
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+
+/**
+ * Data Transfer Object for Category
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryDto {
+    
+    private String id;
+    
+    @NotBlank(message = "Category name is required")
+    private String name;
+    
+    private String slug;
+    
+    private String description;
+    
+    private String imageUrl;
+    
+    private String parentId;
+    
+    private Integer sortOrder;
+    
+    private boolean active = true;
+    
+    // Materialized path of slugs from the root, e.g. /beverages/tea (read-only)
+    private String path;
+    
+    private int depth;
+    
+    // Only filled in tree responses
+    private List<CategoryDto> children;
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back to fetch the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    
+    private List<T> items;
+    
+    private String nextCursor;
+    
+    private boolean hasMore;
+}
\ No newline at end of file
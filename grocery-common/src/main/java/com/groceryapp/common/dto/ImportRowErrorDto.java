@@ -0,0 +1,19 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a rejected bulk import row
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDto {
+    
+    // 1-based position of the row among the data rows of the import
+    private long row;
+    
+    private String message;
+}
\ No newline at end of file
@@ -21,6 +21,9 @@ public class OrderDto {
     
     private String id;
     
+    // Assigned by the server when the order is created
+    private String orderNumber;
+    
     @NotBlank(message = "Customer ID is required")
     private String customerId;
     
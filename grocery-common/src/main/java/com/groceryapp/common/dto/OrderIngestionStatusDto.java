@@ -0,0 +1,33 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the progress of an asynchronously submitted order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIngestionStatusDto {
+    
+    private String orderId;
+    
+    private String state;
+    
+    // Set once the order has been created
+    private OrderDto order;
+    
+    // Set when the order failed
+    private String message;
+    
+    private List<OrderItemErrorDto> errors;
+    
+    private LocalDateTime acceptedAt;
+    
+    private LocalDateTime completedAt;
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for an order line that failed validation
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemErrorDto {
+    
+    private String productId;
+    
+    private String message;
+}
\ No newline at end of file
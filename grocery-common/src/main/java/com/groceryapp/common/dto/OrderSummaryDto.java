@@ -0,0 +1,33 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for an order history row
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    
+    private String id;
+    
+    private String orderNumber;
+    
+    private String customerId;
+    
+    private String customerName;
+    
+    private BigDecimal totalAmount;
+    
+    private String status;
+    
+    private String paymentStatus;
+    
+    private LocalDateTime orderDate;
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Price histogram bucket; {@code min} is inclusive, {@code max} exclusive and null for the open-ended top bucket
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucketDto {
+    
+    private BigDecimal min;
+    
+    private BigDecimal max;
+    
+    private long count;
+}
\ No newline at end of file
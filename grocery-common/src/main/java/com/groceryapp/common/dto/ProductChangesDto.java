@@ -0,0 +1,24 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for a page of the product change feed
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesDto {
+    
+    // Created, updated and deactivated products, oldest change first
+    private List<ExtendedProductDto> products;
+    
+    // Pass as since on the next call; present even when there are no changes
+    private String nextToken;
+    
+    private boolean hasMore;
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for faceted product search results: one page of matching
+ * products with the counts over all matches. Pass {@code nextCursor} back to fetch
+ * the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsDto {
+    
+    private List<ProductSummaryDto> products;
+    
+    // Matching products across all pages
+    private long total;
+    
+    private String nextCursor;
+    
+    private boolean hasMore;
+    
+    // Counts ignore the category filter so other categories stay selectable
+    private Map<String, Long> categoryCounts;
+    
+    // Counts ignore the price filter so other ranges stay selectable
+    private List<PriceBucketDto> priceHistogram;
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for a product card
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDto {
+    
+    private String id;
+    
+    private String name;
+    
+    private String slug;
+    
+    private String category;
+    
+    private String brand;
+    
+    private BigDecimal price;
+    
+    private BigDecimal originalPrice;
+    
+    private String imageUrl;
+    
+    private Integer stockQuantity;
+}
\ No newline at end of file
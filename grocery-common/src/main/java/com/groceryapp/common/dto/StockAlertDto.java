@@ -0,0 +1,29 @@
+package com.groceryapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for a product crossing a stock level boundary
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertDto {
+    
+    private String productId;
+    
+    private String productName;
+    
+    private Integer previousQuantity;
+    
+    private Integer quantity;
+    
+    // IN_STOCK when a product has been restocked above the threshold
+    private String level;
+    
+    private LocalDateTime timestamp;
+}
\ No newline at end of file
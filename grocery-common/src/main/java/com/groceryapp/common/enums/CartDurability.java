@@ -0,0 +1,11 @@
+package com.groceryapp.common.enums;
+
+/**
+ * Enum for how quickly the write-behind cart store persists changes
+ */
+public enum CartDurability {
+    // Every change is saved before the request returns; only reads are served from memory
+    WRITE_THROUGH,
+    // Changes are saved in batches on a timer; up to one flush interval can be lost on a crash
+    BATCHED
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.groceryapp.common.enums;
+
+/**
+ * Enum for the operations of a batch cart update
+ */
+public enum CartOperationType {
+    // Add units to the cart, like POST /items
+    ADD,
+    // Set the quantity of an item in the cart, like PUT /items/{productId}
+    UPDATE,
+    // Remove an item from the cart, like DELETE /items/{productId}
+    REMOVE
+}
\ No newline at end of file
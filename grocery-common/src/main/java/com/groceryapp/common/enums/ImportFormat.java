@@ -0,0 +1,9 @@
+package com.groceryapp.common.enums;
+
+/**
+ * Enum for bulk import file formats
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.groceryapp.common.enums;
+
+/**
+ * Enum for the states of an order submitted for asynchronous checkout
+ */
+public enum OrderIngestionState {
+    QUEUED,
+    PROCESSING,
+    CREATED,
+    FAILED
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.groceryapp.common.enums;
+
+/**
+ * Enum for combining search terms
+ */
+public enum SearchOperator {
+    AND,
+    OR
+}
\ No newline at end of file
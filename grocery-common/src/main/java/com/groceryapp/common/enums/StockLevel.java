@@ -0,0 +1,10 @@
+package com.groceryapp.common.enums;
+
+/**
+ * Enum for product stock levels relative to the low-stock threshold
+ */
+public enum StockLevel {
+    IN_STOCK,
+    LOW_STOCK,
+    OUT_OF_STOCK
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.groceryapp.common.exception;
+
+/**
+ * Exception thrown when a request conflicts with the current state of a resource
+ */
+public class ConflictException extends RuntimeException {
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+    
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.groceryapp.common.exception;
+
+import com.groceryapp.common.dto.OrderItemErrorDto;
+
+import java.util.List;
+
+/**
+ * Exception thrown when one or more lines of an order are rejected; carries every
+ * rejected line so they can be reported together
+ */
+public class OrderValidationException extends BadRequestException {
+    
+    private final List<OrderItemErrorDto> errors;
+    
+    public OrderValidationException(List<OrderItemErrorDto> errors) {
+        super(errors.size() == 1
+                ? errors.get(0).getMessage()
+                : "Order validation failed for " + errors.size() + " items");
+        this.errors = List.copyOf(errors);
+    }
+    
+    public List<OrderItemErrorDto> getErrors() {
+        return errors;
+    }
+}
\ No newline at end of file
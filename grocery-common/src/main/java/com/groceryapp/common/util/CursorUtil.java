@@ -0,0 +1,32 @@
+package com.groceryapp.common.util;
+
+import com.groceryapp.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utility class for opaque pagination cursors
+ */
+public final class CursorUtil {
+    
+    private CursorUtil() {
+        // Utility class
+    }
+    
+    public static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.groceryapp.common.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Utility class for building URL slugs
+ */
+public final class SlugUtil {
+    
+    private SlugUtil() {
+        // Utility class
+    }
+    
+    public static String toSlug(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", "-")
+                .replaceAll("(^-+)|(-+$)", "");
+        return normalized.isEmpty() ? null : normalized;
+    }
+}
\ No newline at end of file
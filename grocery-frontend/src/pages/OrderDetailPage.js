@@ -159,7 +159,7 @@ const OrderDetailPage = () => {
           <div className="flex items-center justify-between">
             <div>
               <h1 className="text-3xl font-bold text-gray-900">
-                Order #{order.id || order.orderNumber}
+                Order #{order.orderNumber || order.id}
               </h1>
               <p className="text-gray-600 mt-1">
                 Placed on {new Date(order.createdAt || order.orderDate).toLocaleDateString('en-IN', {
@@ -188,7 +188,7 @@ const OrdersPage = () => {
                   <div className="flex items-center gap-4">
                     <div>
                       <h3 className="text-lg font-semibold text-gray-900">
-                        Order #{order.id || order.orderNumber}
+                        Order #{order.orderNumber || order.id}
                       </h3>
                       <p className="text-sm text-gray-600">
                         Placed on {new Date(order.createdAt || order.orderDate).toLocaleDateString()}
@@ -21,6 +21,17 @@ export const cartService = {
     }
   },
 
+  // Apply several ADD / UPDATE / REMOVE operations in one request
+  // operations: [{ type: 'ADD', productId, quantity }, ...]
+  applyCartOperations: async (customerId, operations) => {
+    try {
+      const response = await api.post(`/cart/${customerId}/items:batch`, { operations });
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || error.message;
+    }
+  },
+
   // Update item quantity in cart
   updateCartItem: async (customerId, productId, quantity) => {
     try {
@@ -5,6 +5,8 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.math.BigDecimal;
@@ -28,9 +30,15 @@ public class Cart {
     
     private List<CartItem> items;
     
+    // Decimal128 so totals can be adjusted in place with $inc
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal totalAmount;
     private Integer totalItems;
     
+    // Bumped by every write and compared by guarded full-cart replaces, so
+    // background updates can leave updatedAt, which drives the idle TTL, alone
+    private Long version;
+    
     // Timestamps
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -43,7 +51,9 @@ public class Cart {
         private String productName;
         private String productCategory;
         private Integer quantity;
+        @Field(targetType = FieldType.DECIMAL128)
         private BigDecimal unitPrice;
+        @Field(targetType = FieldType.DECIMAL128)
         private BigDecimal totalPrice;
         private String imageUrl;
     }
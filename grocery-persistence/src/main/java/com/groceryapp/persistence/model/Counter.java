@@ -0,0 +1,22 @@
+package com.groceryapp.persistence.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Named monotonic counter for MongoDB
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "counters")
+public class Counter {
+    
+    @Id
+    private String id;
+    
+    private long seq;
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.groceryapp.persistence.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Client-supplied idempotency key claimed by a create request, for MongoDB.
+ * Expired by a TTL index on createdAt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyKey {
+    
+    // The key scoped to its customer; the unique _id makes claiming a key a plain insert
+    @Id
+    private String id;
+    
+    private String customerId;
+    
+    // SHA-256 of the request body, so a key cannot be replayed for a different request
+    private String requestHash;
+    
+    // Id of the order the request creates, assigned when the key is claimed
+    private String orderId;
+    
+    private LocalDateTime createdAt;
+    
+    // Until then an unfinished request owns the key; afterwards a retry may take it over
+    private LocalDateTime leaseExpiresAt;
+    
+    // Null while the request is still in progress
+    private LocalDateTime completedAt;
+}
\ No newline at end of file
@@ -49,7 +49,12 @@ public class Product {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
-    // SEO fields
+    // Position in the catalog change feed, bumped on every write
+    @Indexed
+    private Long changeSeq;
+    
+    // SEO fields; imports match rows without an id on the slug
+    @Indexed(unique = true, sparse = true)
     private String slug;
     private String metaTitle;
     private String metaDescription;
@@ -0,0 +1,29 @@
+package com.groceryapp.persistence.projection;
+
+import com.groceryapp.common.enums.OrderStatus;
+import com.groceryapp.common.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of Order for list views; only these fields are read from MongoDB
+ */
+public interface OrderSummary {
+    
+    String getId();
+    
+    String getOrderNumber();
+    
+    String getCustomerId();
+    
+    String getCustomerName();
+    
+    BigDecimal getTotalAmount();
+    
+    OrderStatus getStatus();
+    
+    PaymentStatus getPaymentStatus();
+    
+    LocalDateTime getOrderDate();
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.groceryapp.persistence.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock taken from one product under a reservation token that has not been
+ * confirmed or released yet
+ */
+@Data
+@AllArgsConstructor
+public class StockReservation {
+    
+    private String productId;
+    private String token;
+    private int quantity;
+    private LocalDateTime reservedAt;
+}
\ No newline at end of file
@@ -10,7 +10,7 @@ import java.util.Optional;
  * Repository interface for Cart entity
  */
 @Repository
-public interface CartRepository extends MongoRepository<Cart, String> {
+public interface CartRepository extends MongoRepository<Cart, String>, CartRepositoryCustom {
     
     Optional<Cart> findByCustomerId(String customerId);
     
@@ -0,0 +1,91 @@
+package com.groceryapp.persistence.repository;
+
+import com.groceryapp.persistence.model.Cart;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Custom Cart operations implemented directly on MongoTemplate.
+ *
+ * Each item operation is a single atomic findAndModify that touches the matched
+ * item and adjusts totalItems and totalAmount with $inc, returning the updated
+ * cart. An empty result means the cart did not match the expected state, for
+ * instance because another request changed it first.
+ */
+public interface CartRepositoryCustom {
+    
+    /**
+     * Adds quantity units to the item for productId, provided it is priced at
+     * unitPrice and holds at most maxExistingQuantity units.
+     */
+    Optional<Cart> incrementItem(String customerId, String productId, BigDecimal unitPrice, int quantity,
+                                 int maxExistingQuantity, LocalDateTime updatedAt);
+    
+    /**
+     * Appends the item, provided the cart has no item for the same product yet.
+     */
+    Optional<Cart> pushItem(String customerId, Cart.CartItem item, LocalDateTime updatedAt);
+    
+    /**
+     * Replaces the item for the same product, provided it still equals expected.
+     */
+    Optional<Cart> replaceItem(String customerId, Cart.CartItem expected, Cart.CartItem replacement,
+                               LocalDateTime updatedAt);
+    
+    /**
+     * Removes the item for the same product, provided it still equals expected.
+     */
+    Optional<Cart> pullItem(String customerId, Cart.CartItem expected, LocalDateTime updatedAt);
+    
+    /**
+     * Replaces the whole cart with the next version, provided its stored version
+     * still equals expectedVersion.
+     */
+    Optional<Cart> replaceIfUnchanged(Cart cart, Long expectedVersion);
+    
+    /**
+     * Sets the unit price of every cart line for the given products to the new
+     * price and recomputes line and cart totals server-side, with one unordered
+     * bulk write of one pipeline updateMany per product. Carts are found through
+     * the items.productId index. updatedAt is left alone so repricing does not keep
+     * idle carts alive; the version is bumped instead.
+     *
+     * @return the number of carts changed
+     */
+    long repriceItems(Map<String, BigDecimal> unitPriceByProductId);
+    
+    /**
+     * Creates the unique customerId index, the items.productId index used for
+     * repricing, and the TTL index that removes carts
+     * idle for longer than idleTtl, or updates the TTL when it has changed.
+     */
+    void ensureIndexes(Duration idleTtl);
+    
+    /**
+     * Ids of every product referenced by a cart line.
+     */
+    List<String> findDistinctItemProductIds();
+    
+    /**
+     * Removes the lines for the given products from every cart and recomputes the
+     * totals of those carts server-side. updatedAt is left alone so compaction does
+     * not keep idle carts alive.
+     *
+     * @return the number of carts changed
+     */
+    long removeItemsForProducts(Collection<String> productIds);
+    
+    /**
+     * Converts amounts written as strings by earlier versions to Decimal128 so they
+     * can be adjusted with $inc.
+     *
+     * @return the number of carts converted
+     */
+    long migrateLegacyAmounts();
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.groceryapp.persistence.repository;
+
+import com.groceryapp.persistence.model.Cart;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateManyModel;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MongoTemplate-backed implementation of {@link CartRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class CartRepositoryCustomImpl implements CartRepositoryCustom {
+    
+    private static final String IDLE_TTL_INDEX = "updatedAt_idle_ttl";
+    
+    private static final Document RECOMPUTE_TOTALS = new Document("$set", new Document()
+            .append("totalItems", new Document("$sum", "$items.quantity"))
+            .append("totalAmount", new Document("$toDecimal", new Document("$sum", "$items.totalPrice"))));
+    
+    private static final Document NEXT_VERSION = new Document("$set", new Document("version",
+            new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L))));
+    
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public Optional<Cart> incrementItem(String customerId, String productId, BigDecimal unitPrice, int quantity,
+                                        int maxExistingQuantity, LocalDateTime updatedAt) {
+        Decimal128 amount = decimal(unitPrice.multiply(BigDecimal.valueOf(quantity)));
+        Query query = new Query(Criteria.where("customerId").is(customerId)
+                .and("items").elemMatch(Criteria.where("productId").is(productId)
+                        .and("unitPrice").is(decimal(unitPrice))
+                        .and("quantity").lte(maxExistingQuantity)));
+        Update update = new Update()
+                .inc("items.$.quantity", quantity)
+                .inc("items.$.totalPrice", amount)
+                .inc("totalItems", quantity)
+                .inc("totalAmount", amount)
+                .inc("version", 1L)
+                .set("updatedAt", updatedAt);
+        return modify(query, update);
+    }
+    
+    @Override
+    public Optional<Cart> pushItem(String customerId, Cart.CartItem item, LocalDateTime updatedAt) {
+        Query query = new Query(Criteria.where("customerId").is(customerId)
+                .and("items.productId").ne(item.getProductId()));
+        Update update = new Update()
+                .push("items", toDocument(item))
+                .inc("totalItems", item.getQuantity())
+                .inc("totalAmount", decimal(item.getTotalPrice()))
+                .inc("version", 1L)
+                .set("updatedAt", updatedAt);
+        return modify(query, update);
+    }
+    
+    @Override
+    public Optional<Cart> replaceItem(String customerId, Cart.CartItem expected, Cart.CartItem replacement,
+                                      LocalDateTime updatedAt) {
+        Update update = new Update()
+                .set("items.$", toDocument(replacement))
+                .inc("totalItems", replacement.getQuantity() - expected.getQuantity())
+                .inc("totalAmount", decimal(replacement.getTotalPrice().subtract(expected.getTotalPrice())))
+                .inc("version", 1L)
+                .set("updatedAt", updatedAt);
+        return modify(matching(customerId, expected), update);
+    }
+    
+    @Override
+    public Optional<Cart> pullItem(String customerId, Cart.CartItem expected, LocalDateTime updatedAt) {
+        Update update = new Update()
+                .pull("items", new Document("productId", expected.getProductId()))
+                .inc("totalItems", -expected.getQuantity())
+                .inc("totalAmount", decimal(expected.getTotalPrice().negate()))
+                .inc("version", 1L)
+                .set("updatedAt", updatedAt);
+        return modify(matching(customerId, expected), update);
+    }
+    
+    @Override
+    public Optional<Cart> replaceIfUnchanged(Cart cart, Long expectedVersion) {
+        // Carts stored before versioning have none; null matches the missing field
+        Query query = new Query(Criteria.where("id").is(cart.getId()).and("version").is(expectedVersion));
+        cart.setVersion(expectedVersion != null ? expectedVersion + 1 : 1L);
+        return Optional.ofNullable(mongoTemplate.findAndReplace(query, cart, FindAndReplaceOptions.options().returnNew()));
+    }
+    
+    @Override
+    public void ensureIndexes(Duration idleTtl) {
+        IndexOperations indexes = mongoTemplate.indexOps(Cart.class);
+        indexes.createIndex(new Index().on("customerId", Sort.Direction.ASC).unique());
+        indexes.createIndex(new Index().on("items.productId", Sort.Direction.ASC));
+        
+        Optional<IndexInfo> ttlIndex = indexes.getIndexInfo().stream()
+                .filter(index -> index.getName().equals(IDLE_TTL_INDEX))
+                .findFirst();
+        if (ttlIndex.isEmpty()) {
+            indexes.createIndex(new Index().on("updatedAt", Sort.Direction.ASC).named(IDLE_TTL_INDEX).expire(idleTtl));
+        } else if (!ttlIndex.get().getExpireAfter().equals(Optional.of(idleTtl))) {
+            // A TTL cannot be changed by recreating the index; collMod updates it in place
+            mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(Cart.class))
+                    .append("index", new Document("name", IDLE_TTL_INDEX)
+                            .append("expireAfterSeconds", idleTtl.toSeconds())));
+        }
+    }
+    
+    @Override
+    public List<String> findDistinctItemProductIds() {
+        return mongoTemplate.findDistinct(new Query(), "items.productId", Cart.class, String.class);
+    }
+    
+    @Override
+    public long removeItemsForProducts(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        Query affected = new Query(Criteria.where("items.productId").in(productIds));
+        Document keepLines = new Document("$set", new Document("items", new Document("$filter", new Document()
+                .append("input", "$items")
+                .append("as", "item")
+                .append("cond", new Document("$not", List.of(
+                        new Document("$in", List.of("$$item.productId", List.copyOf(productIds)))))))));
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cart.class))
+                .updateMany(affected.getQueryObject(), List.of(keepLines, RECOMPUTE_TOTALS, NEXT_VERSION))
+                .getModifiedCount();
+    }
+    
+    @Override
+    public long repriceItems(Map<String, BigDecimal> unitPriceByProductId) {
+        if (unitPriceByProductId.isEmpty()) {
+            return 0;
+        }
+        List<UpdateManyModel<Document>> updates = new ArrayList<>(unitPriceByProductId.size());
+        unitPriceByProductId.forEach((productId, unitPrice) -> {
+            Decimal128 price = decimal(unitPrice);
+            Query outdated = new Query(Criteria.where("items").elemMatch(
+                    Criteria.where("productId").is(productId).and("unitPrice").ne(price)));
+            Document repriced = new Document("$mergeObjects", List.of("$$item", new Document()
+                    .append("unitPrice", price)
+                    .append("totalPrice", new Document("$multiply", List.of(price, "$$item.quantity")))));
+            Document repriceLines = new Document("$set", new Document()
+                    .append("items", new Document("$map", new Document()
+                            .append("input", "$items")
+                            .append("as", "item")
+                            .append("in", new Document("$cond", List.of(
+                                    new Document("$eq", List.of("$$item.productId", productId)),
+                                    repriced,
+                                    "$$item"))))));
+            updates.add(new UpdateManyModel<>(outdated.getQueryObject(),
+                    List.of(repriceLines, RECOMPUTE_TOTALS, NEXT_VERSION)));
+        });
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cart.class))
+                .bulkWrite(updates, new BulkWriteOptions().ordered(false))
+                .getModifiedCount();
+    }
+    
+    @Override
+    public long migrateLegacyAmounts() {
+        Query legacy = new Query(new Criteria().orOperator(
+                Criteria.where("totalAmount").type(2),
+                Criteria.where("totalAmount").is(null),
+                Criteria.where("items.unitPrice").type(2),
+                Criteria.where("items.totalPrice").type(2)));
+        Document toDecimalItem = new Document("$mergeObjects", List.of("$$item", new Document()
+                .append("unitPrice", new Document("$toDecimal", "$$item.unitPrice"))
+                .append("totalPrice", new Document("$toDecimal", "$$item.totalPrice"))));
+        Document convert = new Document("$set", new Document()
+                .append("totalAmount", new Document("$toDecimal", new Document("$ifNull", List.of("$totalAmount", 0))))
+                .append("totalItems", new Document("$ifNull", List.of("$totalItems", 0)))
+                .append("items", new Document("$map", new Document()
+                        .append("input", new Document("$ifNull", List.of("$items", List.of())))
+                        .append("as", "item")
+                        .append("in", toDecimalItem))));
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cart.class))
+                .updateMany(legacy.getQueryObject(), List.of(convert, NEXT_VERSION))
+                .getModifiedCount();
+    }
+    
+    private Optional<Cart> modify(Query query, Update update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, RETURN_NEW, Cart.class));
+    }
+    
+    private static Query matching(String customerId, Cart.CartItem expected) {
+        return new Query(Criteria.where("customerId").is(customerId)
+                .and("items").elemMatch(Criteria.where("productId").is(expected.getProductId())
+                        .and("quantity").is(expected.getQuantity())
+                        .and("unitPrice").is(decimal(expected.getUnitPrice()))
+                        .and("totalPrice").is(decimal(expected.getTotalPrice()))));
+    }
+    
+    private static Document toDocument(Cart.CartItem item) {
+        return new Document()
+                .append("productId", item.getProductId())
+                .append("productName", item.getProductName())
+                .append("productCategory", item.getProductCategory())
+                .append("quantity", item.getQuantity())
+                .append("unitPrice", decimal(item.getUnitPrice()))
+                .append("totalPrice", decimal(item.getTotalPrice()))
+                .append("imageUrl", item.getImageUrl());
+    }
+    
+    private static Decimal128 decimal(BigDecimal value) {
+        return new Decimal128(value);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.groceryapp.persistence.repository;
+
+import com.groceryapp.persistence.model.Counter;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for Counter entity
+ */
+@Repository
+public interface CounterRepository extends MongoRepository<Counter, String>, CounterRepositoryCustom {
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.groceryapp.persistence.repository;
+
+/**
+ * Custom Counter operations implemented directly on MongoTemplate
+ */
+public interface CounterRepositoryCustom {
+    
+    /**
+     * Atomically adds delta to the named counter, creating it at zero first if
+     * needed, and returns the new value.
+     */
+    long increment(String name, long delta);
+}
\ No newline at end of file
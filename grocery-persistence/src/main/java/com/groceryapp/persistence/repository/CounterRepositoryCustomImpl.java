@@ -0,0 +1,28 @@
+package com.groceryapp.persistence.repository;
+
+import com.groceryapp.persistence.model.Counter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoTemplate-backed implementation of {@link CounterRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class CounterRepositoryCustomImpl implements CounterRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public long increment(String name, long delta) {
+        Counter counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(name)),
+                new Update().inc("seq", delta),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Counter.class);
+        return counter.getSeq();
+    }
+}
\ No newline at end of file
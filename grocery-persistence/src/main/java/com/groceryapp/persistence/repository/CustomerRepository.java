@@ -1,9 +1,11 @@
 package com.groceryapp.persistence.repository;
 
 import com.groceryapp.persistence.model.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -19,4 +21,9 @@ public interface CustomerRepository extends MongoRepository<Customer, String> {
     boolean existsByEmail(String email);
     
     boolean existsByPhoneNumber(String phoneNumber);
+    
+    // Keyset pagination on _id
+    List<Customer> findAllBy(Pageable pageable);
+    
+    List<Customer> findByIdGreaterThan(String id, Pageable pageable);
 }
\ No newline at end of file
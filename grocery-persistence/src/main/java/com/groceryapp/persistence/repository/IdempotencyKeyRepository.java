@@ -0,0 +1,12 @@
+package com.groceryapp.persistence.repository;
+
+import com.groceryapp.persistence.model.IdempotencyKey;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for IdempotencyKey entity
+ */
+@Repository
+public interface IdempotencyKeyRepository extends MongoRepository<IdempotencyKey, String>, IdempotencyKeyRepositoryCustom {
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.groceryapp.persistence.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Custom IdempotencyKey operations implemented directly on MongoTemplate
+ */
+public interface IdempotencyKeyRepositoryCustom {
+    
+    /**
+     * Creates the TTL index expiring keys the given time after they were claimed,
+     * or updates its expiry when it differs.
+     */
+    void ensureIndexes(Duration ttl);
+    
+    /**
+     * Hands an unfinished key to a new attempt that will create the order with the
+     * given id, provided the key still names the expected order.
+     *
+     * @return whether the key was taken over
+     */
+    boolean takeOver(String id, String expectedOrderId, String orderId, LocalDateTime leaseExpiresAt);
+    
+    /**
+     * Marks the key completed, provided it still names the given order.
+     *
+     * @return whether the key was completed
+     */
+    boolean complete(String id, String orderId, LocalDateTime completedAt);
+    
+    /**
+     * Deletes an unfinished key, provided it still names the given order, so the
+     * request can be retried.
+     */
+    void release(String id, String orderId);
+}
\ No newline at end of file
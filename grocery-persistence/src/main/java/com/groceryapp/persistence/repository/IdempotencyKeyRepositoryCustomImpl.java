@@ -0,0 +1,69 @@
+package com.groceryapp.persistence.repository;
+
+import com.groceryapp.persistence.model.IdempotencyKey;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * MongoTemplate-backed implementation of {@link IdempotencyKeyRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class IdempotencyKeyRepositoryCustomImpl implements IdempotencyKeyRepositoryCustom {
+    
+    private static final String TTL_INDEX = "createdAt_ttl";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public void ensureIndexes(Duration ttl) {
+        IndexOperations indexes = mongoTemplate.indexOps(IdempotencyKey.class);
+        Optional<IndexInfo> ttlIndex = indexes.getIndexInfo().stream()
+                .filter(index -> index.getName().equals(TTL_INDEX))
+                .findFirst();
+        if (ttlIndex.isEmpty()) {
+            indexes.createIndex(new Index().on("createdAt", Sort.Direction.ASC).named(TTL_INDEX).expire(ttl));
+        } else if (!ttlIndex.get().getExpireAfter().equals(Optional.of(ttl))) {
+            mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(IdempotencyKey.class))
+                    .append("index", new Document("name", TTL_INDEX)
+                            .append("expireAfterSeconds", ttl.toSeconds())));
+        }
+    }
+    
+    @Override
+    public boolean takeOver(String id, String expectedOrderId, String orderId, LocalDateTime leaseExpiresAt) {
+        Update update = new Update()
+                .set("orderId", orderId)
+                .set("leaseExpiresAt", leaseExpiresAt);
+        return mongoTemplate.updateFirst(unfinished(id, expectedOrderId), update, IdempotencyKey.class)
+                .getModifiedCount() == 1;
+    }
+    
+    @Override
+    public boolean complete(String id, String orderId, LocalDateTime completedAt) {
+        return mongoTemplate.updateFirst(unfinished(id, orderId), new Update().set("completedAt", completedAt),
+                IdempotencyKey.class).getModifiedCount() == 1;
+    }
+    
+    @Override
+    public void release(String id, String orderId) {
+        mongoTemplate.remove(unfinished(id, orderId), IdempotencyKey.class);
+    }
+    
+    private static Query unfinished(String id, String orderId) {
+        return new Query(Criteria.where("id").is(id)
+                .and("orderId").is(orderId)
+                .and("completedAt").is(null));
+    }
+}
\ No newline at end of file
@@ -2,14 +2,18 @@ package com.groceryapp.persistence.repository;
 
 import com.groceryapp.common.enums.OrderStatus;
 import com.groceryapp.persistence.model.Order;
+import com.groceryapp.persistence.projection.OrderSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Order entity
@@ -38,4 +42,21 @@ public interface OrderRepository extends MongoRepository<Order, String> {
     long countByStatus(OrderStatus status);
     
     long countByCustomerId(String customerId);
+    
+    // Cursor-backed stream for exports; must be closed by the caller
+    Stream<Order> streamAllBy();
+    
+    // Keyset pagination on _id
+    List<Order> findAllBy(Pageable pageable);
+    
+    List<Order> findByIdGreaterThan(String id, Pageable pageable);
+    
+    // Summary projections for list views
+    List<OrderSummary> findSummariesBy(Pageable pageable);
+    
+    List<OrderSummary> findSummariesByIdGreaterThan(String id, Pageable pageable);
+    
+    List<OrderSummary> findSummariesByCustomerId(String customerId, Sort sort);
+    
+    List<OrderSummary> findSummariesByOrderNumberIn(Collection<String> orderNumbers);
 }
\ No newline at end of file
@@ -8,14 +8,16 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Product entity
  */
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
     
     Optional<Product> findBySlug(String slug);
     
@@ -51,4 +53,16 @@ public interface ProductRepository extends MongoRepository<Product, String> {
     
     @Query("{'stockQuantity': {$lt: ?0}, 'active': true}")
     List<Product> findLowStockProducts(Integer threshold);
+    
+    // Cursor-backed stream for exports; must be closed by the caller
+    Stream<Product> streamByActiveTrue();
+    
+    // Change feed, including deactivated products
+    List<Product> findByChangeSeqGreaterThan(long changeSeq, Pageable pageable);
+    
+    List<Product> findByChangeSeqIsNull();
+    
+    // Ids only, for checking which of the given products are still sold
+    @Query(value = "{'_id': {$in: ?0}, 'active': true}", fields = "{'_id': 1}")
+    List<Product> findActiveIds(Collection<String> ids);
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.groceryapp.persistence.repository;
+
+import com.groceryapp.persistence.model.Product;
+import com.groceryapp.persistence.projection.StockReservation;
+import com.mongodb.bulk.BulkWriteResult;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Custom Product operations implemented directly on MongoTemplate
+ */
+public interface ProductRepositoryCustom {
+    
+    /**
+     * Upserts the given products in one unordered bulk write. Products with an id
+     * are matched on id, the others on slug. Only non-null fields are written, and
+     * createdAt is only set on insert. The active flag is only written for products
+     * matching writesActive; the others keep their stored flag and are inserted
+     * active.
+     *
+     * @throws org.springframework.data.mongodb.BulkOperationException when some of
+     *         the writes failed; the others have still been applied
+     */
+    BulkWriteResult bulkUpsert(List<Product> products, Predicate<Product> writesActive);
+    
+    /**
+     * Sets the given fields and adds stockDelta to the stock with one
+     * findAndModify, stamping changeSeq and updatedAt. Every other field,
+     * including pending stock reservations, is left as stored. A negative delta
+     * only applies while the stock still covers it.
+     *
+     * @return the updated product, or empty if it does not exist or no longer has
+     *         the stock a negative delta takes
+     */
+    Optional<Product> updateFields(String productId, Map<String, Object> fields, int stockDelta, long changeSeq,
+                                   LocalDateTime updatedAt);
+    
+    /**
+     * Adds each delta to the stock of its product in one unordered bulk write of
+     * $inc updates, stamping the products with consecutive changeSeq values from
+     * firstChangeSeq and with updatedAt.
+     *
+     * @return the number of products updated
+     */
+    int adjustStock(Map<String, Integer> deltaById, long firstChangeSeq, LocalDateTime updatedAt);
+    
+    /**
+     * Takes each quantity out of its product's stock in one unordered bulk write.
+     * Every update is guarded by the product still having at least that much stock
+     * and tags the product with the reservation token, so a partial reservation
+     * can be undone with {@link #releaseReservation} and a complete one settled
+     * with {@link #confirmReservations}. Stamps changeSeq and updatedAt like
+     * {@link #adjustStock}.
+     *
+     * @return the ids of the products whose stock was taken
+     * @throws org.springframework.data.mongodb.BulkOperationException when some of
+     *         the writes failed; the others have still been applied
+     */
+    Set<String> reserveStock(String token, Map<String, Integer> quantityById, long firstChangeSeq,
+                             LocalDateTime updatedAt);
+    
+    /**
+     * Puts the quantities back on the products still tagged with the token and
+     * removes the tag, in one unordered bulk write.
+     *
+     * @return the number of products restored
+     */
+    int releaseReservation(String token, Map<String, Integer> quantityById, long firstChangeSeq,
+                           LocalDateTime updatedAt);
+    
+    /**
+     * Removes the reservation tokens from the products once the stock taken is
+     * accounted for elsewhere, with a single updateMany.
+     */
+    void confirmReservations(Collection<String> tokens, Collection<String> productIds);
+    
+    /**
+     * Reservations taken before the cutoff that are still neither confirmed nor
+     * released, one per product and token.
+     */
+    List<StockReservation> findReservationsBefore(LocalDateTime cutoff);
+    
+    /**
+     * Sets changeSeq on each of the given products that still has none.
+     *
+     * @return the number of products updated
+     */
+    int assignMissingChangeSeq(Map<String, Long> changeSeqById);
+    
+    /**
+     * Creates the changeSeq index used by the change feed if it does not exist yet.
+     */
+    void ensureChangeSeqIndex();
+    
+    /**
+     * Creates the unique, sparse slug index imports match on if it does not exist
+     * yet. While stored products share a slug, a non-unique index is created instead.
+     *
+     * @return whether the slug index is unique
+     */
+    boolean ensureSlugIndex();
+}
\ No newline at end of file
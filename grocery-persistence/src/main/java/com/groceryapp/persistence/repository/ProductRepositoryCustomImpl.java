@@ -0,0 +1,238 @@
+package com.groceryapp.persistence.repository;
+
+import com.groceryapp.persistence.model.Product;
+import com.groceryapp.persistence.projection.StockReservation;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * MongoTemplate-backed implementation of {@link ProductRepositoryCustom}
+ */
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    
+    /**
+     * Stock reservations not yet confirmed or released, as {token, quantity,
+     * reservedAt} entries. Not mapped on {@link Product}, so the catalog never
+     * sees them and only targeted updates touch them.
+     */
+    private static final String RESERVATIONS = "stockReservations";
+    private static final String TOKEN = RESERVATIONS + ".token";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public BulkWriteResult bulkUpsert(List<Product> products, Predicate<Product> writesActive) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (Product product : products) {
+            Criteria key = product.getId() != null
+                    ? Criteria.where("id").is(product.getId())
+                    : Criteria.where("slug").is(product.getSlug());
+            operations.upsert(new Query(key), toUpdate(product, writesActive.test(product)));
+        }
+        return operations.execute();
+    }
+    
+    @Override
+    public Optional<Product> updateFields(String productId, Map<String, Object> fields, int stockDelta,
+                                          long changeSeq, LocalDateTime updatedAt) {
+        Criteria criteria = Criteria.where("id").is(productId);
+        if (stockDelta < 0) {
+            criteria = criteria.and("stockQuantity").gte(-stockDelta);
+        }
+        Update update = new Update();
+        fields.forEach(update::set);
+        if (stockDelta != 0) {
+            update.inc("stockQuantity", stockDelta);
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(criteria),
+                stamped(update, changeSeq, updatedAt), FindAndModifyOptions.options().returnNew(true),
+                Product.class));
+    }
+    
+    @Override
+    public int adjustStock(Map<String, Integer> deltaById, long firstChangeSeq, LocalDateTime updatedAt) {
+        if (deltaById.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        long changeSeq = firstChangeSeq;
+        for (Map.Entry<String, Integer> delta : deltaById.entrySet()) {
+            operations.updateOne(new Query(Criteria.where("id").is(delta.getKey())),
+                    stamped(new Update().inc("stockQuantity", delta.getValue()), changeSeq++, updatedAt));
+        }
+        return operations.execute().getModifiedCount();
+    }
+    
+    @Override
+    public Set<String> reserveStock(String token, Map<String, Integer> quantityById, long firstChangeSeq,
+                                    LocalDateTime updatedAt) {
+        if (quantityById.isEmpty()) {
+            return Set.of();
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        long changeSeq = firstChangeSeq;
+        for (Map.Entry<String, Integer> quantity : quantityById.entrySet()) {
+            Query enoughStock = new Query(Criteria.where("id").is(quantity.getKey())
+                    .and("stockQuantity").gte(quantity.getValue()));
+            Update take = new Update()
+                    .inc("stockQuantity", -quantity.getValue())
+                    .push(RESERVATIONS, new Document("token", token)
+                            .append("quantity", quantity.getValue())
+                            .append("reservedAt", toDate(updatedAt)));
+            operations.updateOne(enoughStock, stamped(take, changeSeq++, updatedAt));
+        }
+        int modified = operations.execute().getModifiedCount();
+        if (modified == quantityById.size()) {
+            return Set.copyOf(quantityById.keySet());
+        }
+        if (modified == 0) {
+            return Set.of();
+        }
+        // Only a partial reservation has to be read back to tell which products were short
+        Query reserved = new Query(Criteria.where("id").in(quantityById.keySet()).and(TOKEN).is(token));
+        reserved.fields().include("id");
+        return mongoTemplate.find(reserved, Product.class).stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+    }
+    
+    @Override
+    public int releaseReservation(String token, Map<String, Integer> quantityById, long firstChangeSeq,
+                                  LocalDateTime updatedAt) {
+        if (quantityById.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        long changeSeq = firstChangeSeq;
+        for (Map.Entry<String, Integer> quantity : quantityById.entrySet()) {
+            Query reserved = new Query(Criteria.where("id").is(quantity.getKey()).and(TOKEN).is(token));
+            Update giveBack = new Update()
+                    .inc("stockQuantity", quantity.getValue())
+                    .pull(RESERVATIONS, new Document("token", token));
+            operations.updateOne(reserved, stamped(giveBack, changeSeq++, updatedAt));
+        }
+        return operations.execute().getModifiedCount();
+    }
+    
+    @Override
+    public void confirmReservations(Collection<String> tokens, Collection<String> productIds) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("id").in(productIds).and(TOKEN).in(tokens)),
+                new Update().pull(RESERVATIONS, new Document("token", new Document("$in", tokens))), Product.class);
+    }
+    
+    @Override
+    public List<StockReservation> findReservationsBefore(LocalDateTime cutoff) {
+        Date before = toDate(cutoff);
+        Query query = new Query(Criteria.where(RESERVATIONS)
+                .elemMatch(Criteria.where("reservedAt").lt(before)));
+        query.fields().include(RESERVATIONS);
+        List<StockReservation> reservations = new ArrayList<>();
+        for (Document product : mongoTemplate.find(query, Document.class,
+                mongoTemplate.getCollectionName(Product.class))) {
+            String productId = product.get("_id").toString();
+            for (Document entry : product.getList(RESERVATIONS, Document.class)) {
+                Date reservedAt = entry.getDate("reservedAt");
+                if (reservedAt != null && reservedAt.before(before)) {
+                    reservations.add(new StockReservation(productId, entry.getString("token"),
+                            entry.getInteger("quantity"),
+                            LocalDateTime.ofInstant(reservedAt.toInstant(), ZoneId.systemDefault())));
+                }
+            }
+        }
+        return reservations;
+    }
+    
+    @Override
+    public int assignMissingChangeSeq(Map<String, Long> changeSeqById) {
+        if (changeSeqById.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        changeSeqById.forEach((id, changeSeq) -> operations.updateOne(
+                new Query(Criteria.where("id").is(id).and("changeSeq").is(null)),
+                new Update().set("changeSeq", changeSeq)));
+        return operations.execute().getModifiedCount();
+    }
+    
+    @Override
+    public void ensureChangeSeqIndex() {
+        mongoTemplate.indexOps(Product.class).createIndex(new Index().on("changeSeq", Sort.Direction.ASC));
+    }
+    
+    @Override
+    public boolean ensureSlugIndex() {
+        try {
+            mongoTemplate.indexOps(Product.class).createIndex(new Index().on("slug", Sort.Direction.ASC).unique().sparse());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Duplicate slugs already stored; still index the lookups
+            mongoTemplate.indexOps(Product.class).createIndex(new Index().on("slug", Sort.Direction.ASC).sparse());
+            return false;
+        }
+    }
+    
+    // Stored like the mapped LocalDateTime fields, in the system time zone
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+    
+    private static Update stamped(Update update, long changeSeq, LocalDateTime updatedAt) {
+        return update
+                .set("changeSeq", changeSeq)
+                .set("updatedAt", updatedAt);
+    }
+    
+    private static Update toUpdate(Product product, boolean writesActive) {
+        Update update = new Update();
+        setIfPresent(update, "name", product.getName());
+        setIfPresent(update, "description", product.getDescription());
+        setIfPresent(update, "category", product.getCategory());
+        setIfPresent(update, "price", product.getPrice());
+        setIfPresent(update, "originalPrice", product.getOriginalPrice());
+        setIfPresent(update, "stockQuantity", product.getStockQuantity());
+        setIfPresent(update, "imageUrl", product.getImageUrl());
+        setIfPresent(update, "brand", product.getBrand());
+        setIfPresent(update, "slug", product.getSlug());
+        setIfPresent(update, "updatedAt", product.getUpdatedAt());
+        setIfPresent(update, "changeSeq", product.getChangeSeq());
+        if (writesActive) {
+            update.set("active", product.isActive());
+        } else {
+            update.setOnInsert("active", true);
+        }
+        update.setOnInsert("featured", product.isFeatured());
+        if (product.getCreatedAt() != null) {
+            update.setOnInsert("createdAt", product.getCreatedAt());
+        }
+        return update;
+    }
+    
+    private static void setIfPresent(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
+}
\ No newline at end of file
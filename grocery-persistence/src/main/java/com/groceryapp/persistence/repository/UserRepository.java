@@ -1,9 +1,11 @@
 package com.groceryapp.persistence.repository;
 
 import com.groceryapp.persistence.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,4 +23,9 @@ public interface UserRepository extends MongoRepository<User, String> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+    
+    // Keyset pagination on _id
+    List<User> findAllBy(Pageable pageable);
+    
+    List<User> findByIdGreaterThan(String id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.exception.ResourceNotFoundException;
+import com.groceryapp.persistence.model.Cart;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cart item changes applied to a cart held in memory, shared by the cart stores.
+ */
+final class CartMutations {
+    
+    private CartMutations() {
+        // Utility class
+    }
+    
+    static Cart newCart(String customerId) {
+        Cart cart = new Cart();
+        cart.setCustomerId(customerId);
+        cart.setItems(new ArrayList<>());
+        cart.setTotalAmount(BigDecimal.ZERO);
+        cart.setTotalItems(0);
+        cart.setVersion(0L);
+        cart.setCreatedAt(LocalDateTime.now());
+        cart.setUpdatedAt(LocalDateTime.now());
+        return cart;
+    }
+    
+    static Optional<Cart.CartItem> findItem(Cart cart, String productId) {
+        return cart.getItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .findFirst();
+    }
+    
+    /**
+     * Copy of the item holding quantity units at unitPrice.
+     */
+    static Cart.CartItem withQuantity(Cart.CartItem item, int quantity, BigDecimal unitPrice) {
+        return new Cart.CartItem(item.getProductId(), item.getProductName(), item.getProductCategory(), quantity,
+                unitPrice, unitPrice.multiply(BigDecimal.valueOf(quantity)), item.getImageUrl());
+    }
+    
+    static void checkStock(int quantity, int maxQuantity) {
+        if (quantity > maxQuantity) {
+            throw new IllegalArgumentException("Insufficient stock available");
+        }
+    }
+    
+    /**
+     * Adds the item's units to the cart, repricing an existing item for the same
+     * product at the item's unit price.
+     */
+    static void addItem(Cart cart, Cart.CartItem item, int maxQuantity) {
+        Optional<Cart.CartItem> existing = findItem(cart, item.getProductId());
+        if (existing.isPresent()) {
+            int newQuantity = existing.get().getQuantity() + item.getQuantity();
+            checkStock(newQuantity, maxQuantity);
+            cart.getItems().set(cart.getItems().indexOf(existing.get()),
+                    withQuantity(existing.get(), newQuantity, item.getUnitPrice()));
+        } else {
+            checkStock(item.getQuantity(), maxQuantity);
+            cart.getItems().add(item);
+        }
+        touch(cart);
+    }
+    
+    /**
+     * Sets the quantity of an item already in the cart; zero or less removes it.
+     */
+    static void setItemQuantity(Cart cart, String productId, int quantity) {
+        Cart.CartItem item = findItem(cart, productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found in cart"));
+        if (quantity <= 0) {
+            cart.getItems().remove(item);
+        } else {
+            cart.getItems().set(cart.getItems().indexOf(item), withQuantity(item, quantity, item.getUnitPrice()));
+        }
+        touch(cart);
+    }
+    
+    static void removeItem(Cart cart, String productId) {
+        cart.getItems().removeIf(item -> item.getProductId().equals(productId));
+        touch(cart);
+    }
+    
+    /**
+     * Moves lines for the given products to their new unit prices.
+     *
+     * @return whether any line changed
+     */
+    static boolean repriceItems(Cart cart, Map<String, BigDecimal> unitPriceByProductId) {
+        boolean changed = false;
+        for (int i = 0; i < cart.getItems().size(); i++) {
+            Cart.CartItem item = cart.getItems().get(i);
+            BigDecimal unitPrice = unitPriceByProductId.get(item.getProductId());
+            if (unitPrice != null && unitPrice.compareTo(item.getUnitPrice()) != 0) {
+                cart.getItems().set(i, withQuantity(item, item.getQuantity(), unitPrice));
+                changed = true;
+            }
+        }
+        if (changed) {
+            recomputeTotals(cart);
+        }
+        return changed;
+    }
+    
+    /**
+     * Removes the lines for the given products.
+     *
+     * @return whether any line was removed
+     */
+    static boolean removeItems(Cart cart, Collection<String> productIds) {
+        boolean changed = cart.getItems().removeIf(item -> productIds.contains(item.getProductId()));
+        if (changed) {
+            recomputeTotals(cart);
+        }
+        return changed;
+    }
+    
+    // Customer changes; updatedAt keeps the cart alive under the idle TTL
+    private static void touch(Cart cart) {
+        recomputeTotals(cart);
+        cart.setUpdatedAt(LocalDateTime.now());
+    }
+    
+    // Background changes leave updatedAt alone so idle carts still expire
+    private static void recomputeTotals(Cart cart) {
+        BigDecimal totalAmount = cart.getItems().stream()
+                .map(Cart.CartItem::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        
+        int totalItems = cart.getItems().stream()
+                .mapToInt(Cart.CartItem::getQuantity)
+                .sum();
+        
+        cart.setTotalAmount(totalAmount);
+        cart.setTotalItems(totalItems);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Product;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves stored cart lines to the current catalog price when a product's price changes.
+ *
+ * Catalog changes are compared with the last price seen per product, so stock
+ * updates never trigger a reprice; a full reload compares every product, which
+ * also catches price changes made on other nodes or by bulk imports. Changed
+ * prices are queued per product, the latest price winning, and drained by at
+ * most {@code cart.repricing.threads} background workers that reprice up to
+ * {@code cart.repricing.batch-size} products per bulk write.
+ */
+@Slf4j
+@Component
+public class CartRepricer {
+    
+    private final CartStore cartStore;
+    private final int threads;
+    private final int batchSize;
+    private final ExecutorService executor;
+    
+    // Last price seen per product, guarded by this
+    private final Map<String, BigDecimal> knownPrices = new HashMap<>();
+    private final Map<String, BigDecimal> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    
+    public CartRepricer(CartStore cartStore,
+                        @Value("${cart.repricing.threads:2}") int threads,
+                        @Value("${cart.repricing.batch-size:100}") int batchSize) {
+        this.cartStore = cartStore;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        AtomicInteger workerCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cart-repricer-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isRebuilt()) {
+            collectChanges(event.getSnapshot().getProducts(), true);
+        } else {
+            collectChanges(event.getChangedProducts(), false);
+        }
+    }
+    
+    private synchronized void collectChanges(Collection<Product> products, boolean rebuilt) {
+        // Nothing to compare against on the first load
+        boolean reprice = !rebuilt || !knownPrices.isEmpty();
+        int changed = 0;
+        for (Product product : products) {
+            BigDecimal price = product.getPrice();
+            if (product.getId() == null || price == null) {
+                continue;
+            }
+            BigDecimal previous = knownPrices.put(product.getId(), price);
+            if (reprice && previous != null && previous.compareTo(price) != 0) {
+                pending.put(product.getId(), price);
+                changed++;
+            }
+        }
+        if (changed > 0) {
+            log.info("Repricing carts for {} products with changed prices", changed);
+            schedule();
+        }
+    }
+    
+    /**
+     * Starts another worker unless all of them are already running; running
+     * workers keep draining until nothing is pending.
+     */
+    private void schedule() {
+        while (!pending.isEmpty()) {
+            int active = activeWorkers.get();
+            if (active >= threads) {
+                return;
+            }
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    activeWorkers.decrementAndGet();
+                    log.warn("Cart repricing is shutting down, {} products not repriced", pending.size());
+                }
+                return;
+            }
+        }
+    }
+    
+    private void drain() {
+        try {
+            Map<String, BigDecimal> batch;
+            while (!(batch = takeBatch()).isEmpty()) {
+                try {
+                    long carts = cartStore.repriceItems(batch);
+                    log.debug("Repriced {} carts for {} products", carts, batch.size());
+                } catch (RuntimeException e) {
+                    log.error("Failed to reprice carts for products {}", batch.keySet(), e);
+                }
+            }
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+        // Prices queued after the last batch was taken but before this worker stopped
+        schedule();
+    }
+    
+    private Map<String, BigDecimal> takeBatch() {
+        Map<String, BigDecimal> batch = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, BigDecimal>> entries = pending.entrySet().iterator();
+        while (entries.hasNext() && batch.size() < batchSize) {
+            Map.Entry<String, BigDecimal> entry = entries.next();
+            // Leave the entry if a newer price replaced it in the meantime; the next batch takes that one
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return batch;
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Cart repricing still running at shutdown, {} products not repriced", pending.size());
+            executor.shutdownNow();
+        }
+    }
+}
\ No newline at end of file
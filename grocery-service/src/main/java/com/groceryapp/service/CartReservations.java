@@ -0,0 +1,43 @@
+package com.groceryapp.service;
+
+/**
+ * Holds on product stock for units sitting in carts.
+ *
+ * Holds reduce what other customers can add to their carts and check out. They
+ * are a per-node hint, not a guarantee: they live in memory on the node that
+ * served the cart, are lost on restart, and checkouts on other nodes do not see
+ * them. The stock itself is only taken by the guarded write at checkout.
+ */
+public interface CartReservations {
+    
+    /**
+     * Units of the product the customer may have in their cart: the stock minus
+     * what other customers hold.
+     */
+    int available(String customerId, String productId, int stock);
+    
+    /**
+     * Sets the customer's hold on the product to quantity units, capped at what
+     * is available; zero or less releases it.
+     */
+    void hold(String customerId, String productId, int quantity, int stock);
+    
+    /**
+     * Sets the customer's hold on the product to quantity units if that many are
+     * available, checking and holding in one step so the units are the
+     * customer's before the cart line is written.
+     *
+     * @return the units held before, to restore with {@link #hold} if the cart write fails
+     * @throws IllegalArgumentException when fewer than quantity units are available
+     */
+    int tryHold(String customerId, String productId, int quantity, int stock);
+    
+    /**
+     * Units of the product currently held for the customer.
+     */
+    int held(String customerId, String productId);
+    
+    void release(String customerId, String productId);
+    
+    void releaseAll(String customerId);
+}
\ No newline at end of file
@@ -2,6 +2,9 @@ package com.groceryapp.service;
 
 import com.groceryapp.common.dto.CartDto;
 import com.groceryapp.common.dto.CartItemDto;
+import com.groceryapp.common.dto.CartOperationDto;
+import com.groceryapp.common.enums.CartOperationType;
+import com.groceryapp.common.exception.BadRequestException;
 import com.groceryapp.common.exception.ResourceNotFoundException;
 import com.groceryapp.persistence.model.Cart;
 import com.groceryapp.persistence.model.Product;
@@ -9,173 +12,268 @@ import com.groceryapp.persistence.repository.CartRepository;
 import com.groceryapp.persistence.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
- * Service class for Cart operations
+ * Service class for Cart operations. Carts are read and written through the
+ * configured {@link CartStore}.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CartService {
     
+    private final CartStore cartStore;
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
+    private final ProductPriceCache productPriceCache;
+    private final CartReservations cartReservations;
+    private final ProductCatalogCache catalogCache;
+    
+    @Value("${cart.idle-ttl-days:30}")
+    private long idleTtlDays;
+    
+    /**
+     * Prepares the carts collection: the unique customer index that item operations
+     * rely on, the TTL index that drops carts idle for cart.idle-ttl-days, and
+     * Decimal128 amounts for carts saved by earlier versions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareCartCollection() {
+        cartRepository.ensureIndexes(Duration.ofDays(idleTtlDays));
+        long migrated = cartRepository.migrateLegacyAmounts();
+        if (migrated > 0) {
+            log.info("Converted amounts of {} carts to Decimal128", migrated);
+        }
+    }
     
     public CartDto getCartByCustomerId(String customerId) {
         log.info("Getting cart for customer: {}", customerId);
         
-        Optional<Cart> cartOpt = cartRepository.findByCustomerId(customerId);
-        if (cartOpt.isEmpty()) {
-            // Create empty cart if doesn't exist
-            Cart cart = new Cart();
-            cart.setCustomerId(customerId);
-            cart.setItems(new ArrayList<>());
-            cart.setTotalAmount(BigDecimal.ZERO);
-            cart.setTotalItems(0);
-            cart.setCreatedAt(LocalDateTime.now());
-            cart.setUpdatedAt(LocalDateTime.now());
-            cart = cartRepository.save(cart);
-            return convertToDto(cart);
-        }
-        
-        return convertToDto(cartOpt.get());
+        // An empty cart is only stored once something is added to it
+        Cart cart = cartStore.find(customerId)
+                .orElseGet(() -> CartMutations.newCart(customerId));
+        return convertToDto(cart);
     }
     
     public CartDto addItemToCart(String customerId, CartItemDto itemDto) {
         log.info("Adding item to cart for customer: {}", customerId);
         
         // Validate product exists
-        Product product = productRepository.findById(itemDto.getProductId())
+        Product product = productPriceCache.get(itemDto.getProductId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
         
-        // Check stock availability
-        if (product.getStockQuantity() < itemDto.getQuantity()) {
-            throw new IllegalArgumentException("Insufficient stock available");
+        // The units are held before the cart is written, so two customers cannot both take the last ones
+        int previousHold = cartReservations.tryHold(customerId, product.getId(),
+                cartReservations.held(customerId, product.getId()) + itemDto.getQuantity(),
+                product.getStockQuantity());
+        Cart cart;
+        try {
+            // Stock is checked against the quantity already in the cart plus the new units
+            cart = cartStore.addItem(customerId, toCartItem(product, itemDto.getQuantity()),
+                    cartReservations.available(customerId, product.getId(), product.getStockQuantity()));
+        } catch (RuntimeException e) {
+            restoreHold(customerId, product, previousHold);
+            throw e;
         }
+        holdQuantityInCart(cart, product);
+        return convertToDto(cart);
+    }
+    
+    /**
+     * Applies the operations in order with one product lookup and one cart write.
+     * The batch is all or nothing: if any operation fails, the cart is left as it was.
+     */
+    public CartDto applyBatch(String customerId, List<CartOperationDto> operations) {
+        log.info("Applying {} cart operations for customer: {}", operations.size(), customerId);
         
-        Cart cart = cartRepository.findByCustomerId(customerId)
-                .orElse(createNewCart(customerId));
-        
-        // Check if item already exists in cart
-        Optional<Cart.CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(itemDto.getProductId()))
-                .findFirst();
-        
-        if (existingItem.isPresent()) {
-            // Update quantity
-            Cart.CartItem item = existingItem.get();
-            int newQuantity = item.getQuantity() + itemDto.getQuantity();
-            
-            // Check stock for new quantity
-            if (product.getStockQuantity() < newQuantity) {
-                throw new IllegalArgumentException("Insufficient stock available");
+        Set<String> productIds = new HashSet<>();
+        for (CartOperationDto operation : operations) {
+            if (operation.getType() == CartOperationType.ADD
+                    && (operation.getQuantity() == null || operation.getQuantity() <= 0)) {
+                throw new BadRequestException("Quantity must be positive for ADD of product: " + operation.getProductId());
+            }
+            if (operation.getType() == CartOperationType.UPDATE && operation.getQuantity() == null) {
+                throw new BadRequestException("Quantity is required for UPDATE of product: " + operation.getProductId());
+            }
+            if (operation.getType() != CartOperationType.REMOVE && operation.getQuantity() > 0) {
+                productIds.add(operation.getProductId());
             }
-            
-            item.setQuantity(newQuantity);
-            item.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(newQuantity)));
-        } else {
-            // Add new item
-            Cart.CartItem newItem = new Cart.CartItem();
-            newItem.setProductId(product.getId());
-            newItem.setProductName(product.getName());
-            newItem.setProductCategory(product.getCategory());
-            newItem.setQuantity(itemDto.getQuantity());
-            newItem.setUnitPrice(product.getPrice());
-            newItem.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity())));
-            newItem.setImageUrl(product.getImageUrl());
-            
-            cart.getItems().add(newItem);
         }
         
-        updateCartTotals(cart);
-        cart.setUpdatedAt(LocalDateTime.now());
-        cart = cartRepository.save(cart);
+        Map<String, Product> products = productPriceCache.getAll(productIds);
+        
+        // Holds taken while applying, by product, with what was held before the batch
+        Map<String, Integer> previousHolds = new HashMap<>();
+        Cart cart;
+        try {
+            cart = cartStore.applyAll(customerId, target -> {
+                for (CartOperationDto operation : operations) {
+                    apply(customerId, target, operation, products, previousHolds);
+                }
+            });
+        } catch (RuntimeException e) {
+            previousHolds.forEach((productId, previous) ->
+                    restoreHold(customerId, products.get(productId), previous));
+            throw e;
+        }
         
+        for (CartOperationDto operation : operations) {
+            Product product = products.get(operation.getProductId());
+            if (product != null) {
+                holdQuantityInCart(cart, product);
+            } else {
+                cartReservations.release(customerId, operation.getProductId());
+            }
+        }
         return convertToDto(cart);
     }
     
     public CartDto updateItemQuantity(String customerId, String productId, Integer quantity) {
         log.info("Updating item quantity in cart for customer: {}", customerId);
         
-        Cart cart = cartRepository.findByCustomerId(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        
-        Cart.CartItem item = cart.getItems().stream()
-                .filter(cartItem -> cartItem.getProductId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found in cart"));
-        
-        if (quantity <= 0) {
-            cart.getItems().remove(item);
-        } else {
+        if (quantity > 0) {
             // Validate stock
-            Product product = productRepository.findById(productId)
+            Product product = productPriceCache.get(productId)
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
             
-            if (product.getStockQuantity() < quantity) {
-                throw new IllegalArgumentException("Insufficient stock available");
-            }
+            int available = cartReservations.available(customerId, productId, product.getStockQuantity());
+            CartMutations.checkStock(quantity, available);
             
-            item.setQuantity(quantity);
-            item.setTotalPrice(item.getUnitPrice().multiply(BigDecimal.valueOf(quantity)));
+            int previousHold = cartReservations.tryHold(customerId, productId, quantity, product.getStockQuantity());
+            try {
+                return convertToDto(cartStore.setItemQuantity(customerId, productId, quantity));
+            } catch (RuntimeException e) {
+                restoreHold(customerId, product, previousHold);
+                throw e;
+            }
         }
         
-        updateCartTotals(cart);
-        cart.setUpdatedAt(LocalDateTime.now());
-        cart = cartRepository.save(cart);
-        
+        Cart cart = cartStore.setItemQuantity(customerId, productId, quantity);
+        cartReservations.release(customerId, productId);
         return convertToDto(cart);
     }
     
     public CartDto removeItemFromCart(String customerId, String productId) {
         log.info("Removing item from cart for customer: {}", customerId);
-        
-        Cart cart = cartRepository.findByCustomerId(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        
-        cart.getItems().removeIf(item -> item.getProductId().equals(productId));
-        
-        updateCartTotals(cart);
-        cart.setUpdatedAt(LocalDateTime.now());
-        cart = cartRepository.save(cart);
-        
+        Cart cart = cartStore.removeItem(customerId, productId);
+        cartReservations.release(customerId, productId);
         return convertToDto(cart);
     }
     
     public void clearCart(String customerId) {
         log.info("Clearing cart for customer: {}", customerId);
-        cartRepository.deleteByCustomerId(customerId);
+        cartStore.delete(customerId);
+        cartReservations.releaseAll(customerId);
     }
     
-    private Cart createNewCart(String customerId) {
-        Cart cart = new Cart();
-        cart.setCustomerId(customerId);
-        cart.setItems(new ArrayList<>());
-        cart.setTotalAmount(BigDecimal.ZERO);
-        cart.setTotalItems(0);
-        cart.setCreatedAt(LocalDateTime.now());
-        cart.setUpdatedAt(LocalDateTime.now());
-        return cart;
+    /**
+     * Removes cart lines for products that are no longer active, so abandoned carts
+     * do not keep stale lines around until they expire. Products missing from this
+     * node's catalog are only candidates; they are checked against MongoDB before
+     * any line is removed, so a catalog that is behind never empties carts.
+     */
+    @Scheduled(fixedDelayString = "${cart.compaction.interval-ms:3600000}",
+               initialDelayString = "${cart.compaction.interval-ms:3600000}")
+    public void compactCarts() {
+        CatalogSnapshot snapshot = catalogCache.current();
+        List<String> candidates = cartRepository.findDistinctItemProductIds()
+                .stream()
+                .filter(productId -> snapshot.findById(productId).isEmpty())
+                .toList();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> active = productRepository.findActiveIds(candidates).stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        List<String> staleProductIds = candidates.stream()
+                .filter(productId -> !active.contains(productId))
+                .toList();
+        if (staleProductIds.isEmpty()) {
+            return;
+        }
+        long compacted = cartStore.removeItemsForProducts(staleProductIds);
+        log.info("Removed lines for {} inactive products from {} carts", staleProductIds.size(), compacted);
     }
     
-    private void updateCartTotals(Cart cart) {
-        BigDecimal totalAmount = cart.getItems().stream()
-                .map(Cart.CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        int totalItems = cart.getItems().stream()
-                .mapToInt(Cart.CartItem::getQuantity)
-                .sum();
-        
-        cart.setTotalAmount(totalAmount);
-        cart.setTotalItems(totalItems);
+    /**
+     * Applies one operation to the cart, first holding the units an ADD or UPDATE
+     * leaves in the cart; previousHolds keeps what was held before the batch.
+     */
+    private void apply(String customerId, Cart cart, CartOperationDto operation, Map<String, Product> products,
+                       Map<String, Integer> previousHolds) {
+        switch (operation.getType()) {
+            case ADD -> {
+                Product product = requireProduct(products, operation.getProductId());
+                int inCart = CartMutations.findItem(cart, product.getId())
+                        .map(Cart.CartItem::getQuantity)
+                        .orElse(0);
+                tryHold(customerId, product, inCart + operation.getQuantity(), previousHolds);
+                CartMutations.addItem(cart, toCartItem(product, operation.getQuantity()),
+                        cartReservations.available(customerId, product.getId(), product.getStockQuantity()));
+            }
+            case UPDATE -> {
+                if (operation.getQuantity() > 0) {
+                    Product product = requireProduct(products, operation.getProductId());
+                    CartMutations.checkStock(operation.getQuantity(),
+                            cartReservations.available(customerId, product.getId(), product.getStockQuantity()));
+                    tryHold(customerId, product, operation.getQuantity(), previousHolds);
+                }
+                CartMutations.setItemQuantity(cart, operation.getProductId(), operation.getQuantity());
+            }
+            case REMOVE -> CartMutations.removeItem(cart, operation.getProductId());
+        }
+    }
+    
+    private static Product requireProduct(Map<String, Product> products, String productId) {
+        Product product = products.get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found: " + productId);
+        }
+        return product;
+    }
+    
+    private static Cart.CartItem toCartItem(Product product, int quantity) {
+        Cart.CartItem item = new Cart.CartItem();
+        item.setProductId(product.getId());
+        item.setProductName(product.getName());
+        item.setProductCategory(product.getCategory());
+        item.setQuantity(quantity);
+        item.setUnitPrice(product.getPrice());
+        item.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        item.setImageUrl(product.getImageUrl());
+        return item;
+    }
+    
+    private void tryHold(String customerId, Product product, int quantity, Map<String, Integer> previousHolds) {
+        int previous = cartReservations.tryHold(customerId, product.getId(), quantity, product.getStockQuantity());
+        previousHolds.putIfAbsent(product.getId(), previous);
+    }
+    
+    // Puts a hold back to what it was before a cart write that failed
+    private void restoreHold(String customerId, Product product, int previous) {
+        cartReservations.hold(customerId, product.getId(), previous, product.getStockQuantity());
+    }
+    
+    private void holdQuantityInCart(Cart cart, Product product) {
+        int quantity = CartMutations.findItem(cart, product.getId())
+                .map(Cart.CartItem::getQuantity)
+                .orElse(0);
+        cartReservations.hold(cart.getCustomerId(), product.getId(), quantity, product.getStockQuantity());
     }
     
     private CartDto convertToDto(Cart cart) {
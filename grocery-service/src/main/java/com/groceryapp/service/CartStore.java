@@ -0,0 +1,66 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Cart;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage for shopping carts, one per customer.
+ *
+ * Carts returned by {@link #find} are private copies; changing them changes
+ * nothing stored. Carts are only written through the item operations, which are
+ * applied atomically per cart and return the cart as it is afterwards.
+ */
+public interface CartStore {
+    
+    Optional<Cart> find(String customerId);
+    
+    void delete(String customerId);
+    
+    /**
+     * Adds the item's units to the customer's cart, creating the cart if needed.
+     * An existing item for the same product is repriced at the item's unit price.
+     *
+     * @throws IllegalArgumentException when the product would exceed maxQuantity units
+     */
+    Cart addItem(String customerId, Cart.CartItem item, int maxQuantity);
+    
+    /**
+     * Sets the quantity of an item in the cart; zero or less removes it.
+     *
+     * @throws com.groceryapp.common.exception.ResourceNotFoundException when the
+     *         cart or the item does not exist
+     */
+    Cart setItemQuantity(String customerId, String productId, int quantity);
+    
+    /**
+     * @throws com.groceryapp.common.exception.ResourceNotFoundException when the cart does not exist
+     */
+    Cart removeItem(String customerId, String productId);
+    
+    /**
+     * Applies changes to the customer's cart, created if needed, and stores the
+     * result with a single write. Nothing is stored when changes throws.
+     */
+    Cart applyAll(String customerId, Consumer<Cart> changes);
+    
+    /**
+     * Reprices every stored cart line for the given products at the new unit
+     * prices and recomputes the cart totals.
+     *
+     * @return the number of carts changed
+     */
+    long repriceItems(Map<String, BigDecimal> unitPriceByProductId);
+    
+    /**
+     * Removes every stored cart line for the given products and recomputes the
+     * cart totals.
+     *
+     * @return the number of carts changed
+     */
+    long removeItemsForProducts(Collection<String> productIds);
+}
\ No newline at end of file
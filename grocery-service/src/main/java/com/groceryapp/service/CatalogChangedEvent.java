@@ -0,0 +1,27 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Product;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published by {@link ProductCatalogCache} every time a new catalog snapshot is swapped in.
+ *
+ * Listeners run synchronously, one event at a time in snapshot version order,
+ * after the cache write lock has been released; changes superseded by a full
+ * reload are never announced. On a full reload {@code rebuilt} is true and listeners should rebuild from
+ * the snapshot; otherwise {@code changedProducts} holds the saved entities (inactive
+ * ones have been removed from the catalog).
+ */
+@Getter
+@RequiredArgsConstructor
+public class CatalogChangedEvent {
+    
+    private final CatalogSnapshot snapshot;
+    
+    private final List<Product> changedProducts;
+    
+    private final boolean rebuilt;
+}
\ No newline at end of file
@@ -0,0 +1,421 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Product;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable point-in-time view of the active product catalog.
+ *
+ * Products are kept in id order (ObjectId order, i.e. creation order) and indexed
+ * by id, category and slug. A snapshot is never modified once published; changes
+ * produce a new snapshot which the {@link ProductCatalogCache} swaps in atomically.
+ * The product entities held here must be treated as read-only.
+ *
+ * The id and slug indexes are split into hash shards and the id-ordered list into
+ * sorted chunks. A new snapshot copies only the shards, chunks and category lists
+ * a change touches and shares the rest, so applying a few products costs a small
+ * fraction of a rebuild.
+ *
+ * Every product write stamps a new changeSeq, so the highest changeSeq among the
+ * active products together with their count identifies the catalog's contents:
+ * two snapshots agreeing on both hold the same products, whichever node built them.
+ */
+public final class CatalogSnapshot {
+    
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+    
+    private final long version;
+    private final long maxChangeSeq;
+    private final ChunkedList products;
+    private final ShardedMap byId;
+    private final Map<String, List<Product>> byCategory;
+    private final ShardedMap bySlug;
+    
+    private CatalogSnapshot(long version, long maxChangeSeq, ChunkedList products, ShardedMap byId,
+                            Map<String, List<Product>> byCategory, ShardedMap bySlug) {
+        this.version = version;
+        this.maxChangeSeq = maxChangeSeq;
+        this.products = products;
+        this.byId = byId;
+        this.byCategory = byCategory;
+        this.bySlug = bySlug;
+    }
+    
+    /**
+     * Builds a snapshot from the given products, skipping inactive ones.
+     */
+    public static CatalogSnapshot of(Collection<Product> products, long version) {
+        Map<String, Product> byId = new HashMap<>(Math.max(16, products.size() * 2));
+        for (Product product : products) {
+            if (product.isActive() && product.getId() != null) {
+                byId.put(product.getId(), product);
+            }
+        }
+        
+        List<Product> sorted = new ArrayList<>(byId.values());
+        sorted.sort(BY_ID);
+        Map<String, List<Product>> categories = new HashMap<>();
+        Map<String, Product> slugs = new HashMap<>();
+        for (Product product : sorted) {
+            if (product.getCategory() != null) {
+                categories.computeIfAbsent(product.getCategory(), key -> new ArrayList<>()).add(product);
+            }
+            if (product.getSlug() != null) {
+                slugs.put(product.getSlug(), product);
+            }
+        }
+        categories.replaceAll((category, list) -> Collections.unmodifiableList(list));
+        return new CatalogSnapshot(version, maxChangeSeq(sorted), ChunkedList.of(sorted), ShardedMap.of(byId),
+                Collections.unmodifiableMap(categories), ShardedMap.of(slugs));
+    }
+    
+    /**
+     * Returns a new snapshot with the given products applied. Active products are
+     * added or replaced, inactive ones are dropped.
+     */
+    public CatalogSnapshot withProducts(Collection<Product> changed, long newVersion) {
+        // The last entry for an id wins
+        Map<String, Product> latest = new LinkedHashMap<>();
+        for (Product product : changed) {
+            if (product.getId() != null) {
+                latest.put(product.getId(), product);
+            }
+        }
+        
+        // A null value removes the key. Slugs are expected to be unique; a slug shared
+        // by several products resolves to the one applied last
+        Map<String, Product> idChanges = new HashMap<>();
+        Map<String, Product> slugChanges = new HashMap<>();
+        Set<String> touchedCategories = new HashSet<>();
+        long changedMaxChangeSeq = 0;
+        boolean maxChangeSeqReplaced = false;
+        for (Product product : latest.values()) {
+            Product previous = byId.get(product.getId());
+            if (previous != null) {
+                maxChangeSeqReplaced |= changeSeqOf(previous) == maxChangeSeq;
+                if (previous.getSlug() != null && bySlug.get(previous.getSlug()) == previous) {
+                    slugChanges.putIfAbsent(previous.getSlug(), null);
+                }
+                if (previous.getCategory() != null) {
+                    touchedCategories.add(previous.getCategory());
+                }
+            }
+            if (product.isActive()) {
+                changedMaxChangeSeq = Math.max(changedMaxChangeSeq, changeSeqOf(product));
+                idChanges.put(product.getId(), product);
+                if (product.getSlug() != null) {
+                    slugChanges.put(product.getSlug(), product);
+                }
+                if (product.getCategory() != null) {
+                    touchedCategories.add(product.getCategory());
+                }
+            } else if (previous != null) {
+                idChanges.put(product.getId(), null);
+            }
+        }
+        
+        ShardedMap newById = byId.with(idChanges);
+        Map<String, List<Product>> categories = byCategory;
+        if (!touchedCategories.isEmpty()) {
+            categories = new HashMap<>(byCategory);
+            for (String category : touchedCategories) {
+                List<Product> members = new ArrayList<>();
+                for (Product product : byCategory.getOrDefault(category, List.of())) {
+                    if (!latest.containsKey(product.getId())) {
+                        members.add(product);
+                    }
+                }
+                for (Product product : idChanges.values()) {
+                    if (product != null && category.equals(product.getCategory())) {
+                        members.add(product);
+                    }
+                }
+                if (members.isEmpty()) {
+                    categories.remove(category);
+                } else {
+                    members.sort(BY_ID);
+                    categories.put(category, Collections.unmodifiableList(members));
+                }
+            }
+            categories = Collections.unmodifiableMap(categories);
+        }
+        ChunkedList newProducts = products.with(idChanges);
+        // Only a scan finds the next highest once the product holding it is dropped
+        long newMaxChangeSeq = maxChangeSeqReplaced && changedMaxChangeSeq < maxChangeSeq
+                ? maxChangeSeq(newProducts)
+                : Math.max(maxChangeSeq, changedMaxChangeSeq);
+        return new CatalogSnapshot(newVersion, newMaxChangeSeq, newProducts, newById, categories,
+                bySlug.with(slugChanges));
+    }
+    
+    private static long maxChangeSeq(List<Product> products) {
+        long max = 0;
+        for (Product product : products) {
+            max = Math.max(max, changeSeqOf(product));
+        }
+        return max;
+    }
+    
+    private static long changeSeqOf(Product product) {
+        return product.getChangeSeq() != null ? product.getChangeSeq() : 0;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Highest changeSeq among the active products, zero when there are none.
+     */
+    public long getMaxChangeSeq() {
+        return maxChangeSeq;
+    }
+    
+    public List<Product> getProducts() {
+        return products;
+    }
+    
+    public int size() {
+        return products.size();
+    }
+    
+    /**
+     * Returns up to max products whose id sorts after the given id (from the start when null).
+     */
+    public List<Product> findAfterId(String afterId, int max) {
+        int from = 0;
+        if (afterId != null) {
+            int low = 0;
+            int high = products.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (products.get(mid).getId().compareTo(afterId) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            from = low;
+        }
+        return products.subList(from, Math.min(products.size(), from + max));
+    }
+    
+    public Optional<Product> findById(String id) {
+        return Optional.ofNullable(id != null ? byId.get(id) : null);
+    }
+    
+    public Optional<Product> findBySlug(String slug) {
+        return Optional.ofNullable(slug != null ? bySlug.get(slug) : null);
+    }
+    
+    public List<Product> findByCategory(String category) {
+        return byCategory.getOrDefault(category, Collections.emptyList());
+    }
+    
+    /**
+     * Products in any of the given categories, in id order.
+     */
+    public List<Product> findByCategories(Collection<String> categories) {
+        if (categories.size() == 1) {
+            return findByCategory(categories.iterator().next());
+        }
+        List<Product> matches = new ArrayList<>();
+        for (String category : categories) {
+            matches.addAll(findByCategory(category));
+        }
+        matches.sort(BY_ID);
+        return matches;
+    }
+    
+    /**
+     * Immutable map split into a fixed number of hash shards; a change copies only
+     * the shards it touches.
+     */
+    private static final class ShardedMap {
+        
+        private static final int SHARDS = 64;
+        
+        private final List<Map<String, Product>> shards;
+        
+        private ShardedMap(List<Map<String, Product>> shards) {
+            this.shards = shards;
+        }
+        
+        static ShardedMap of(Map<String, Product> entries) {
+            List<Map<String, Product>> shards = new ArrayList<>(SHARDS);
+            for (int i = 0; i < SHARDS; i++) {
+                shards.add(new HashMap<>());
+            }
+            entries.forEach((key, value) -> shards.get(shardOf(key)).put(key, value));
+            return new ShardedMap(shards);
+        }
+        
+        Product get(String key) {
+            return shards.get(shardOf(key)).get(key);
+        }
+        
+        // A null value removes the key
+        ShardedMap with(Map<String, Product> changes) {
+            if (changes.isEmpty()) {
+                return this;
+            }
+            List<Map<String, Product>> copy = new ArrayList<>(shards);
+            boolean[] copied = new boolean[SHARDS];
+            changes.forEach((key, value) -> {
+                int shard = shardOf(key);
+                if (!copied[shard]) {
+                    copy.set(shard, new HashMap<>(shards.get(shard)));
+                    copied[shard] = true;
+                }
+                if (value != null) {
+                    copy.get(shard).put(key, value);
+                } else {
+                    copy.get(shard).remove(key);
+                }
+            });
+            return new ShardedMap(copy);
+        }
+        
+        private static int shardOf(String key) {
+            return Math.floorMod(key.hashCode(), SHARDS);
+        }
+    }
+    
+    /**
+     * Immutable id-ordered product list stored as sorted chunks of about
+     * {@code CHUNK_SIZE} products; a change copies only the chunks it touches.
+     */
+    private static final class ChunkedList extends AbstractList<Product> implements RandomAccess {
+        
+        private static final int CHUNK_SIZE = 512;
+        
+        private final List<List<Product>> chunks;
+        // Number of products up to and including each chunk
+        private final int[] ends;
+        
+        private ChunkedList(List<List<Product>> chunks) {
+            this.chunks = chunks;
+            this.ends = new int[chunks.size()];
+            int total = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                total += chunks.get(i).size();
+                ends[i] = total;
+            }
+        }
+        
+        static ChunkedList of(List<Product> sorted) {
+            List<List<Product>> chunks = new ArrayList<>();
+            addChunks(chunks, sorted);
+            return new ChunkedList(chunks);
+        }
+        
+        @Override
+        public Product get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+            int low = 0;
+            int high = ends.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= index) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return chunks.get(low).get(index - (low == 0 ? 0 : ends[low - 1]));
+        }
+        
+        @Override
+        public int size() {
+            return ends.length == 0 ? 0 : ends[ends.length - 1];
+        }
+        
+        // A null value removes the product with that id
+        ChunkedList with(Map<String, Product> changes) {
+            if (changes.isEmpty()) {
+                return this;
+            }
+            Map<Integer, Map<String, Product>> changesByChunk = new TreeMap<>();
+            changes.forEach((id, product) -> changesByChunk
+                    .computeIfAbsent(chunkFor(id), chunk -> new TreeMap<>())
+                    .put(id, product));
+            
+            List<List<Product>> updated = new ArrayList<>(chunks.size() + 1);
+            for (int i = 0; i < Math.max(1, chunks.size()); i++) {
+                Map<String, Product> chunkChanges = changesByChunk.get(i);
+                List<Product> chunk = i < chunks.size() ? chunks.get(i) : List.of();
+                if (chunkChanges == null) {
+                    updated.add(chunk);
+                } else {
+                    addChunks(updated, apply(chunk, chunkChanges));
+                }
+            }
+            return new ChunkedList(updated);
+        }
+        
+        // Last chunk whose first id is not after the given id; the first chunk for smaller ids
+        private int chunkFor(String id) {
+            int low = 0;
+            int high = chunks.size() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (chunks.get(mid).get(0).getId().compareTo(id) <= 0) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return Math.max(0, low);
+        }
+        
+        // Merges the chunk with the changes, both in id order
+        private static List<Product> apply(List<Product> chunk, Map<String, Product> changes) {
+            List<Product> merged = new ArrayList<>(chunk.size() + changes.size());
+            int position = 0;
+            for (Map.Entry<String, Product> change : changes.entrySet()) {
+                while (position < chunk.size() && chunk.get(position).getId().compareTo(change.getKey()) < 0) {
+                    merged.add(chunk.get(position++));
+                }
+                if (position < chunk.size() && chunk.get(position).getId().equals(change.getKey())) {
+                    position++;
+                }
+                if (change.getValue() != null) {
+                    merged.add(change.getValue());
+                }
+            }
+            merged.addAll(chunk.subList(position, chunk.size()));
+            return merged;
+        }
+        
+        // Adds the sorted products as chunks of at most CHUNK_SIZE, skipping empty ones
+        private static void addChunks(List<List<Product>> chunks, List<Product> sorted) {
+            if (sorted.isEmpty()) {
+                return;
+            }
+            if (sorted.size() <= 2 * CHUNK_SIZE) {
+                chunks.add(Collections.unmodifiableList(new ArrayList<>(sorted)));
+                return;
+            }
+            for (int from = 0; from < sorted.size(); from += CHUNK_SIZE) {
+                chunks.add(Collections.unmodifiableList(
+                        new ArrayList<>(sorted.subList(from, Math.min(from + CHUNK_SIZE, sorted.size())))));
+            }
+        }
+    }
+}
\ No newline at end of file
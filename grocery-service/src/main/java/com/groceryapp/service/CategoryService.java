@@ -0,0 +1,221 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.dto.CategoryDto;
+import com.groceryapp.common.exception.BadRequestException;
+import com.groceryapp.common.exception.ResourceNotFoundException;
+import com.groceryapp.common.util.SlugUtil;
+import com.groceryapp.persistence.model.Category;
+import com.groceryapp.persistence.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for Category operations.
+ *
+ * Reads are served from an in-memory {@link CategoryTree}. The tree is rebuilt from
+ * MongoDB after every category write made through this service and on a schedule
+ * to pick up changes from other nodes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryService {
+    
+    private final CategoryRepository categoryRepository;
+    
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    
+    public CategoryTree currentTree() {
+        CategoryTree current = tree.get();
+        return current != null ? current : refresh();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.categories.refresh-interval-ms:300000}",
+               initialDelayString = "${catalog.categories.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Scheduled category tree refresh failed, keeping version {}", currentTree().getVersion(), e);
+        }
+    }
+    
+    /**
+     * Reloads all active categories from MongoDB and swaps in a new tree.
+     */
+    public synchronized CategoryTree refresh() {
+        CategoryTree rebuilt = CategoryTree.of(categoryRepository.findByActiveTrue(), versionCounter.incrementAndGet());
+        tree.set(rebuilt);
+        log.info("Category tree rebuilt with {} active categories (version {})", rebuilt.size(), rebuilt.getVersion());
+        return rebuilt;
+    }
+    
+    /**
+     * The whole active hierarchy, root categories first, children nested.
+     */
+    public List<CategoryDto> getCategoryTree() {
+        log.info("Fetching category tree");
+        return currentTree().getRoots()
+                .stream()
+                .map(this::convertToTreeDto)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * All active categories in tree order, without nested children.
+     */
+    public List<CategoryDto> getAllCategories() {
+        log.info("Fetching all categories");
+        return currentTree().getNodes()
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+    
+    public CategoryDto getCategory(String idOrSlug) {
+        log.info("Fetching category: {}", idOrSlug);
+        return currentTree().find(idOrSlug)
+                .map(this::convertToTreeDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + idOrSlug));
+    }
+    
+    /**
+     * Names of the given category (id, slug or name) and all its descendants. An
+     * unknown category resolves to itself so products with free-form categories
+     * can still be listed.
+     */
+    public Set<String> getSubtreeCategoryNames(String category) {
+        return currentTree().find(category)
+                .map(CategoryTree.Node::getSubtreeNames)
+                .orElse(Set.of(category));
+    }
+    
+    public CategoryDto createCategory(CategoryDto categoryDto) {
+        log.info("Creating new category: {}", categoryDto.getName());
+        if (categoryRepository.existsByName(categoryDto.getName())) {
+            throw new BadRequestException("Category already exists: " + categoryDto.getName());
+        }
+        validateParent(null, categoryDto.getParentId());
+        
+        Category category = new Category();
+        applyFields(category, categoryDto);
+        category.setActive(true);
+        category.setCreatedAt(LocalDateTime.now());
+        category.setUpdatedAt(LocalDateTime.now());
+        Category saved = categoryRepository.save(category);
+        return convertToDto(findNode(refresh(), saved.getId()));
+    }
+    
+    public CategoryDto updateCategory(String id, CategoryDto categoryDto) {
+        log.info("Updating category with id: {}", id);
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+        Optional<Category> sameName = categoryRepository.findByName(categoryDto.getName());
+        if (sameName.isPresent() && !sameName.get().getId().equals(id)) {
+            throw new BadRequestException("Category already exists: " + categoryDto.getName());
+        }
+        validateParent(id, categoryDto.getParentId());
+        
+        applyFields(category, categoryDto);
+        category.setActive(categoryDto.isActive());
+        category.setUpdatedAt(LocalDateTime.now());
+        categoryRepository.save(category);
+        CategoryTree rebuilt = refresh();
+        return rebuilt.findById(id)
+                .map(this::convertToDto)
+                .orElseGet(() -> convertToDto(category));
+    }
+    
+    public void deleteCategory(String id) {
+        log.info("Deleting category with id: {}", id);
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+        if (!categoryRepository.findByParentIdAndActiveTrue(id).isEmpty()) {
+            throw new BadRequestException("Category has active subcategories: " + category.getName());
+        }
+        // Soft delete - mark as inactive
+        category.setActive(false);
+        category.setUpdatedAt(LocalDateTime.now());
+        categoryRepository.save(category);
+        refresh();
+    }
+    
+    private void validateParent(String id, String parentId) {
+        if (parentId == null) {
+            return;
+        }
+        CategoryTree.Node parent = currentTree().findById(parentId)
+                .orElseThrow(() -> new BadRequestException("Parent category not found: " + parentId));
+        if (id != null) {
+            // The parent must not be the category itself or one of its descendants
+            boolean cycle = currentTree().findById(id)
+                    .map(node -> node.getSubtreeIds().contains(parent.getCategory().getId()))
+                    .orElse(false);
+            if (cycle) {
+                throw new BadRequestException("A category cannot be moved below itself");
+            }
+        }
+    }
+    
+    private void applyFields(Category category, CategoryDto categoryDto) {
+        category.setName(categoryDto.getName());
+        category.setSlug(categoryDto.getSlug() != null ? categoryDto.getSlug() : SlugUtil.toSlug(categoryDto.getName()));
+        category.setDescription(categoryDto.getDescription());
+        category.setImageUrl(categoryDto.getImageUrl());
+        category.setParentId(categoryDto.getParentId());
+        category.setSortOrder(categoryDto.getSortOrder());
+    }
+    
+    private static CategoryTree.Node findNode(CategoryTree tree, String id) {
+        return tree.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+    }
+    
+    private CategoryDto convertToTreeDto(CategoryTree.Node node) {
+        CategoryDto dto = convertToDto(node);
+        dto.setChildren(node.getChildren()
+                .stream()
+                .map(this::convertToTreeDto)
+                .collect(Collectors.toList()));
+        return dto;
+    }
+    
+    private CategoryDto convertToDto(CategoryTree.Node node) {
+        CategoryDto dto = convertToDto(node.getCategory());
+        dto.setSlug(node.getSlug());
+        dto.setPath(node.getPath());
+        dto.setDepth(node.getDepth());
+        return dto;
+    }
+    
+    private CategoryDto convertToDto(Category category) {
+        CategoryDto dto = new CategoryDto();
+        dto.setId(category.getId());
+        dto.setName(category.getName());
+        dto.setSlug(category.getSlug());
+        dto.setDescription(category.getDescription());
+        dto.setImageUrl(category.getImageUrl());
+        dto.setParentId(category.getParentId());
+        dto.setSortOrder(category.getSortOrder());
+        dto.setActive(category.isActive());
+        return dto;
+    }
+}
\ No newline at end of file
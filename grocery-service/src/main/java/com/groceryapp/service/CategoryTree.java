@@ -0,0 +1,248 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.util.SlugUtil;
+import com.groceryapp.persistence.model.Category;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, fully materialized view of the active category hierarchy.
+ *
+ * Every node knows its materialized path (slugs from the root, e.g.
+ * "/beverages/tea") and carries the precomputed ids and names of its whole
+ * subtree, so descendant lookups never walk the tree or query MongoDB.
+ * Categories whose parent is missing or inactive, or which sit on a parent
+ * cycle, are treated as roots.
+ */
+public final class CategoryTree {
+    
+    private static final Comparator<Category> SIBLING_ORDER = Comparator
+            .comparing(Category::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Category::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+    
+    private final long version;
+    private final String fingerprint;
+    private final List<Node> roots;
+    private final List<Node> nodes;
+    private final Map<String, Node> byId = new HashMap<>();
+    private final Map<String, Node> bySlug = new HashMap<>();
+    private final Map<String, Node> byName = new HashMap<>();
+    
+    private CategoryTree(long version, Collection<Category> categories) {
+        this.version = version;
+        
+        Map<String, Category> active = new HashMap<>();
+        for (Category category : categories) {
+            if (category.isActive() && category.getId() != null) {
+                active.put(category.getId(), category);
+            }
+        }
+        Map<String, List<Category>> childrenByParent = new HashMap<>();
+        List<Category> rootCategories = new ArrayList<>();
+        for (Category category : active.values()) {
+            if (category.getParentId() != null && active.containsKey(category.getParentId())) {
+                childrenByParent.computeIfAbsent(category.getParentId(), key -> new ArrayList<>()).add(category);
+            } else {
+                rootCategories.add(category);
+            }
+        }
+        childrenByParent.values().forEach(children -> children.sort(SIBLING_ORDER));
+        rootCategories.sort(SIBLING_ORDER);
+        
+        List<Node> rootNodes = new ArrayList<>();
+        List<Node> ordered = new ArrayList<>(active.size());
+        Set<String> visited = new HashSet<>();
+        for (Category root : rootCategories) {
+            rootNodes.add(build(root, null, childrenByParent, visited, ordered));
+        }
+        // Anything not reached from a root is part of a parent cycle
+        List<Category> unreached = new ArrayList<>();
+        for (Category category : active.values()) {
+            if (!visited.contains(category.getId())) {
+                unreached.add(category);
+            }
+        }
+        unreached.sort(SIBLING_ORDER);
+        for (Category category : unreached) {
+            if (!visited.contains(category.getId())) {
+                rootNodes.add(build(category, null, childrenByParent, visited, ordered));
+            }
+        }
+        
+        this.fingerprint = fingerprint(active.values());
+        this.roots = Collections.unmodifiableList(rootNodes);
+        this.nodes = Collections.unmodifiableList(ordered);
+        for (Node node : ordered) {
+            byId.put(node.category.getId(), node);
+            bySlug.putIfAbsent(node.slug, node);
+            if (node.category.getName() != null) {
+                byName.putIfAbsent(node.category.getName().toLowerCase(Locale.ROOT), node);
+            }
+        }
+    }
+    
+    public static CategoryTree of(Collection<Category> categories, long version) {
+        return new CategoryTree(version, categories);
+    }
+    
+    private static Node build(Category category, Node parent, Map<String, List<Category>> childrenByParent,
+                              Set<String> visited, List<Node> ordered) {
+        visited.add(category.getId());
+        String slug = category.getSlug() != null ? category.getSlug() : SlugUtil.toSlug(category.getName());
+        String path = (parent != null ? parent.path : "") + "/" + slug;
+        Node node = new Node(category, slug, path, parent != null ? parent.depth + 1 : 0);
+        ordered.add(node);
+        
+        List<Node> children = new ArrayList<>();
+        Set<String> subtreeIds = new LinkedHashSet<>();
+        Set<String> subtreeNames = new LinkedHashSet<>();
+        subtreeIds.add(category.getId());
+        if (category.getName() != null) {
+            subtreeNames.add(category.getName());
+        }
+        for (Category child : childrenByParent.getOrDefault(category.getId(), List.of())) {
+            if (visited.contains(child.getId())) {
+                continue;
+            }
+            Node childNode = build(child, node, childrenByParent, visited, ordered);
+            children.add(childNode);
+            subtreeIds.addAll(childNode.subtreeIds);
+            subtreeNames.addAll(childNode.subtreeNames);
+        }
+        node.children = Collections.unmodifiableList(children);
+        node.subtreeIds = Collections.unmodifiableSet(subtreeIds);
+        node.subtreeNames = Collections.unmodifiableSet(subtreeNames);
+        return node;
+    }
+    
+    /**
+     * Digest of the fields the hierarchy is built from, so every node holding the
+     * same active categories computes the same value.
+     */
+    private static String fingerprint(Collection<Category> categories) {
+        List<Category> sorted = new ArrayList<>(categories);
+        sorted.sort(Comparator.comparing(Category::getId));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Category category : sorted) {
+                String fields = category.getId() + '\u0000' + category.getParentId() + '\u0000' + category.getName()
+                        + '\u0000' + category.getSlug() + '\u0000' + category.getSortOrder() + '\n';
+                digest.update(fields.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    
+    public List<Node> getRoots() {
+        return roots;
+    }
+    
+    /**
+     * Every node in depth-first order, parents before their children.
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+    
+    public int size() {
+        return nodes.size();
+    }
+    
+    public Optional<Node> findById(String id) {
+        return Optional.ofNullable(id != null ? byId.get(id) : null);
+    }
+    
+    /**
+     * Resolves a category by id, slug or (case-insensitive) name, in that order.
+     */
+    public Optional<Node> find(String key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        Node node = byId.get(key);
+        if (node == null) {
+            node = bySlug.get(key);
+        }
+        if (node == null) {
+            node = byName.get(key.toLowerCase(Locale.ROOT));
+        }
+        return Optional.ofNullable(node);
+    }
+    
+    public static final class Node {
+        
+        private final Category category;
+        private final String slug;
+        private final String path;
+        private final int depth;
+        private List<Node> children;
+        private Set<String> subtreeIds;
+        private Set<String> subtreeNames;
+        
+        private Node(Category category, String slug, String path, int depth) {
+            this.category = category;
+            this.slug = slug;
+            this.path = path;
+            this.depth = depth;
+        }
+        
+        public Category getCategory() {
+            return category;
+        }
+        
+        public String getSlug() {
+            return slug;
+        }
+        
+        public String getPath() {
+            return path;
+        }
+        
+        public int getDepth() {
+            return depth;
+        }
+        
+        public List<Node> getChildren() {
+            return children;
+        }
+        
+        /**
+         * Ids of this category and all its descendants.
+         */
+        public Set<String> getSubtreeIds() {
+            return subtreeIds;
+        }
+        
+        /**
+         * Names of this category and all its descendants; products refer to categories by name.
+         */
+        public Set<String> getSubtreeNames() {
+            return subtreeNames;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.constants.AppConstants;
+import com.groceryapp.common.dto.CursorPageDto;
+import com.groceryapp.common.exception.BadRequestException;
+import com.groceryapp.common.util.CursorUtil;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for keyset pagination on the document {@code _id}.
+ *
+ * A page is read as "the next limit + 1 documents with an id greater than the cursor";
+ * the extra row only tells whether another page exists, so no count or skip is needed.
+ */
+public final class CursorPagination {
+    
+    private CursorPagination() {
+        // Utility class
+    }
+    
+    public static int pageSize(Integer limit) {
+        return pageSize(limit, AppConstants.DEFAULT_PAGE_SIZE, AppConstants.MAX_PAGE_SIZE);
+    }
+    
+    public static int pageSize(Integer limit, int defaultSize, int maxSize) {
+        if (limit == null) {
+            return defaultSize;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        return Math.min(limit, maxSize);
+    }
+    
+    /**
+     * Decodes a cursor into the id to continue after, or null for the first page.
+     */
+    public static String afterId(String cursor) {
+        String id = CursorUtil.decode(cursor);
+        if (id != null && !ObjectId.isValid(id)) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+        return id;
+    }
+    
+    public static Pageable firstRows(int pageSize) {
+        return PageRequest.of(0, pageSize + 1, Sort.by(Sort.Direction.ASC, "id"));
+    }
+    
+    /**
+     * Builds the page from up to pageSize + 1 rows read in id order.
+     */
+    public static <E, D> CursorPageDto<D> toPage(List<E> rows, int pageSize,
+                                                 Function<E, String> idOf, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? CursorUtil.encode(idOf.apply(pageRows.get(pageRows.size() - 1))) : null;
+        List<D> items = pageRows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPageDto<>(items, nextCursor, hasMore);
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.groceryapp.service;
 
+import com.groceryapp.common.dto.CursorPageDto;
 import com.groceryapp.common.dto.CustomerDto;
 import com.groceryapp.common.exception.BadRequestException;
 import com.groceryapp.common.exception.ResourceNotFoundException;
@@ -7,6 +8,7 @@ import com.groceryapp.persistence.model.Customer;
 import com.groceryapp.persistence.repository.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -31,6 +33,17 @@ public class CustomerService {
                 .collect(Collectors.toList());
     }
     
+    public CursorPageDto<CustomerDto> getCustomersPage(String cursor, Integer limit) {
+        log.info("Fetching customer page after cursor: {}", cursor);
+        int pageSize = CursorPagination.pageSize(limit);
+        String afterId = CursorPagination.afterId(cursor);
+        Pageable rows = CursorPagination.firstRows(pageSize);
+        List<Customer> customers = afterId == null
+                ? customerRepository.findAllBy(rows)
+                : customerRepository.findByIdGreaterThan(afterId, rows);
+        return CursorPagination.toPage(customers, pageSize, Customer::getId, this::convertToDto);
+    }
+    
     public CustomerDto getCustomerById(String id) {
         log.info("Fetching customer with id: {}", id);
         Customer customer = customerRepository.findById(id)
@@ -0,0 +1,176 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart stock holds that expire {@code cart.reservations.ttl-ms} after the cart
+ * line was last changed.
+ *
+ * Every hold is queued in a {@link DelayQueue} ordered by expiry. A sweeper
+ * drains the expired holds in batches and releases them, so expiry costs nothing
+ * on the request path. Changing a hold queues a new one and leaves the old entry
+ * to be skipped when it comes due. Holds are released when the line is removed,
+ * the cart is cleared or the customer places an order.
+ *
+ * Holds are kept per node, like the write-behind cart store: only carts and
+ * checkouts served by this node respect them, and a restart drops them all.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.reservations.enabled", havingValue = "true")
+public class ExpiringCartReservations implements CartReservations {
+    
+    private final long ttlNanos;
+    private final int sweepBatchSize;
+    
+    private final DelayQueue<Hold> expiries = new DelayQueue<>();
+    
+    // Guarded by this
+    private final Map<String, Hold> holds = new HashMap<>();
+    private final Map<String, Integer> reservedByProduct = new HashMap<>();
+    
+    public ExpiringCartReservations(@Value("${cart.reservations.ttl-ms:900000}") long ttlMs,
+                                    @Value("${cart.reservations.sweep-batch-size:1000}") int sweepBatchSize) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.sweepBatchSize = sweepBatchSize;
+    }
+    
+    @Override
+    public synchronized int available(String customerId, String productId, int stock) {
+        Hold own = holds.get(key(customerId, productId));
+        int heldByOthers = reservedByProduct.getOrDefault(productId, 0) - (own != null ? own.quantity : 0);
+        return Math.max(0, stock - heldByOthers);
+    }
+    
+    @Override
+    public synchronized void hold(String customerId, String productId, int quantity, int stock) {
+        int held = Math.min(quantity, available(customerId, productId, stock));
+        if (held <= 0) {
+            release(customerId, productId);
+            return;
+        }
+        Hold hold = new Hold(customerId, productId, held, System.nanoTime() + ttlNanos);
+        remove(holds.put(hold.key(), hold));
+        reservedByProduct.merge(productId, held, Integer::sum);
+        expiries.add(hold);
+    }
+    
+    @Override
+    public synchronized int tryHold(String customerId, String productId, int quantity, int stock) {
+        int previous = held(customerId, productId);
+        if (quantity > available(customerId, productId, stock)) {
+            throw new IllegalArgumentException("Insufficient stock available");
+        }
+        hold(customerId, productId, quantity, stock);
+        return previous;
+    }
+    
+    @Override
+    public synchronized int held(String customerId, String productId) {
+        Hold hold = holds.get(key(customerId, productId));
+        return hold != null ? hold.quantity : 0;
+    }
+    
+    @Override
+    public synchronized void release(String customerId, String productId) {
+        remove(holds.remove(key(customerId, productId)));
+    }
+    
+    @Override
+    public synchronized void releaseAll(String customerId) {
+        List<Hold> released = holds.values().stream()
+                .filter(hold -> hold.customerId.equals(customerId))
+                .toList();
+        for (Hold hold : released) {
+            holds.remove(hold.key());
+            remove(hold);
+        }
+    }
+    
+    /**
+     * Ordered units have left the stock, so the holds on them are no longer needed.
+     */
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        Order order = event.getOrder();
+        for (Order.OrderItem item : order.getItems()) {
+            release(order.getCustomerId(), item.getProductId());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${cart.reservations.sweep-interval-ms:5000}")
+    public void releaseExpired() {
+        List<Hold> expired = new ArrayList<>(sweepBatchSize);
+        int released = 0;
+        while (expiries.drainTo(expired, sweepBatchSize) > 0) {
+            synchronized (this) {
+                for (Hold hold : expired) {
+                    // Skip holds that have been replaced or released since they were queued
+                    if (holds.remove(hold.key(), hold)) {
+                        remove(hold);
+                        released++;
+                    }
+                }
+            }
+            expired.clear();
+        }
+        if (released > 0) {
+            log.info("Released {} expired cart reservations", released);
+        }
+    }
+    
+    // Caller holds the monitor
+    private void remove(Hold hold) {
+        if (hold != null) {
+            reservedByProduct.computeIfPresent(hold.productId,
+                    (id, reserved) -> reserved == hold.quantity ? null : reserved - hold.quantity);
+        }
+    }
+    
+    private static String key(String customerId, String productId) {
+        return customerId + ':' + productId;
+    }
+    
+    private static final class Hold implements Delayed {
+        
+        private final String customerId;
+        private final String productId;
+        private final int quantity;
+        private final long expiresAt;
+        
+        Hold(String customerId, String productId, int quantity, long expiresAt) {
+            this.customerId = customerId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+        
+        String key() {
+            return ExpiringCartReservations.key(customerId, productId);
+        }
+        
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+        
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAt, ((Hold) other).expiresAt);
+        }
+    }
+}
\ No newline at end of file
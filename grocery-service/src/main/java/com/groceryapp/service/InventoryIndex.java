@@ -0,0 +1,144 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.enums.StockLevel;
+import com.groceryapp.persistence.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Active product ids bucketed by stock quantity.
+ *
+ * Stock only changes through writes that go through the catalog cache, so the
+ * index follows catalog events instead of querying MongoDB. Buckets live in a
+ * skip list keyed by quantity: products below any threshold are a head view,
+ * visited lowest stock first, and reads never block the writer.
+ *
+ * Products moving between {@link StockLevel}s for the configured
+ * {@code inventory.low-stock-threshold} are announced with a
+ * {@link StockLevelChangedEvent}. Products seen for the first time, such as after
+ * startup, do not raise events.
+ */
+@Slf4j
+@Component
+public class InventoryIndex {
+    
+    private final int lowStockThreshold;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    // Swapped as a pair on full reloads so readers never see a half-built index
+    private volatile ConcurrentSkipListMap<Integer, Set<String>> idsByStock = new ConcurrentSkipListMap<>();
+    private volatile Map<String, Integer> stockById = new ConcurrentHashMap<>();
+    
+    public InventoryIndex(@Value("${inventory.low-stock-threshold:10}") int lowStockThreshold,
+                          ApplicationEventPublisher eventPublisher) {
+        this.lowStockThreshold = lowStockThreshold;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isRebuilt()) {
+            rebuild(event.getSnapshot().getProducts());
+            return;
+        }
+        for (Product product : event.getChangedProducts()) {
+            Integer previous = remove(product.getId());
+            if (product.isActive() && product.getStockQuantity() != null) {
+                add(idsByStock, stockById, product);
+                announce(product, previous);
+            }
+        }
+    }
+    
+    /**
+     * Ids of active products with less than threshold units, lowest stock first.
+     */
+    public List<String> findBelow(int threshold) {
+        return collect(idsByStock.headMap(threshold, false));
+    }
+    
+    /**
+     * Ids of active products with no units left.
+     */
+    public List<String> findOutOfStock() {
+        return collect(idsByStock.headMap(0, true));
+    }
+    
+    public StockLevel levelOf(int quantity) {
+        if (quantity <= 0) {
+            return StockLevel.OUT_OF_STOCK;
+        }
+        return quantity < lowStockThreshold ? StockLevel.LOW_STOCK : StockLevel.IN_STOCK;
+    }
+    
+    private static List<String> collect(NavigableMap<Integer, Set<String>> buckets) {
+        List<String> ids = new ArrayList<>();
+        buckets.values().forEach(ids::addAll);
+        return ids;
+    }
+    
+    private void rebuild(List<Product> products) {
+        Map<String, Integer> previous = stockById;
+        ConcurrentSkipListMap<Integer, Set<String>> rebuiltIdsByStock = new ConcurrentSkipListMap<>();
+        Map<String, Integer> rebuiltStockById = new ConcurrentHashMap<>();
+        for (Product product : products) {
+            if (product.getStockQuantity() != null) {
+                add(rebuiltIdsByStock, rebuiltStockById, product);
+            }
+        }
+        idsByStock = rebuiltIdsByStock;
+        stockById = rebuiltStockById;
+        for (Product product : products) {
+            if (product.getStockQuantity() != null) {
+                announce(product, previous.get(product.getId()));
+            }
+        }
+        log.info("Inventory index rebuilt with {} products, {} below the low-stock threshold",
+                stockById.size(), findBelow(lowStockThreshold).size());
+    }
+    
+    private static void add(ConcurrentSkipListMap<Integer, Set<String>> idsByStock, Map<String, Integer> stockById,
+                            Product product) {
+        stockById.put(product.getId(), product.getStockQuantity());
+        idsByStock.computeIfAbsent(product.getStockQuantity(), key -> ConcurrentHashMap.newKeySet()).add(product.getId());
+    }
+    
+    private Integer remove(String productId) {
+        Integer stock = stockById.remove(productId);
+        if (stock != null) {
+            idsByStock.computeIfPresent(stock, (key, ids) -> {
+                ids.remove(productId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        return stock;
+    }
+    
+    private void announce(Product product, Integer previousQuantity) {
+        if (previousQuantity == null) {
+            return;
+        }
+        StockLevel previousLevel = levelOf(previousQuantity);
+        StockLevel level = levelOf(product.getStockQuantity());
+        if (previousLevel != level) {
+            log.info("Product {} moved from {} to {} ({} -> {} units)", product.getId(), previousLevel, level,
+                    previousQuantity, product.getStockQuantity());
+            eventPublisher.publishEvent(new StockLevelChangedEvent(product, previousQuantity, previousLevel, level));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.exception.ResourceNotFoundException;
+import com.groceryapp.persistence.model.Cart;
+import com.groceryapp.persistence.repository.CartRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Default cart store: every read and write goes straight to MongoDB.
+ *
+ * Item operations are atomic in-place updates rather than a read and a full save.
+ * Adding units of a product already in the cart at the same price is a single
+ * $inc; new products are $push-ed and removals $pull-ed, with the cart totals
+ * kept by $inc. Operations that depend on the current item (changing its price
+ * or quantity, removing it) read the cart and then update it only if the item is
+ * unchanged, retrying when another request got there first. Batches of changes
+ * replace the whole cart, guarded by its version counter.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+public class MongoCartStore implements CartStore {
+    
+    private static final int MAX_ATTEMPTS = 5;
+    
+    private final CartRepository cartRepository;
+    
+    @Override
+    public Optional<Cart> find(String customerId) {
+        return cartRepository.findByCustomerId(customerId);
+    }
+    
+    @Override
+    public void delete(String customerId) {
+        cartRepository.deleteByCustomerId(customerId);
+    }
+    
+    @Override
+    public Cart addItem(String customerId, Cart.CartItem item, int maxQuantity) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<Cart> updated = cartRepository.incrementItem(customerId, item.getProductId(),
+                    item.getUnitPrice(), item.getQuantity(), maxQuantity - item.getQuantity(), now);
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+            
+            Optional<Cart> cart = cartRepository.findByCustomerId(customerId);
+            if (cart.isEmpty()) {
+                Cart created = CartMutations.newCart(customerId);
+                CartMutations.addItem(created, item, maxQuantity);
+                try {
+                    return cartRepository.insert(created);
+                } catch (DuplicateKeyException e) {
+                    continue;
+                }
+            }
+            
+            Optional<Cart.CartItem> existing = CartMutations.findItem(cart.get(), item.getProductId());
+            if (existing.isEmpty()) {
+                CartMutations.checkStock(item.getQuantity(), maxQuantity);
+                updated = cartRepository.pushItem(customerId, item, now);
+            } else {
+                // Not incremented above: the price changed or the stock would be exceeded
+                int newQuantity = existing.get().getQuantity() + item.getQuantity();
+                CartMutations.checkStock(newQuantity, maxQuantity);
+                updated = cartRepository.replaceItem(customerId, existing.get(),
+                        CartMutations.withQuantity(existing.get(), newQuantity, item.getUnitPrice()), now);
+            }
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+        }
+        throw concurrentModification(customerId);
+    }
+    
+    @Override
+    public Cart setItemQuantity(String customerId, String productId, int quantity) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Cart cart = cartRepository.findByCustomerId(customerId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+            Cart.CartItem item = CartMutations.findItem(cart, productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Item not found in cart"));
+            
+            Optional<Cart> updated = quantity <= 0
+                    ? cartRepository.pullItem(customerId, item, LocalDateTime.now())
+                    : cartRepository.replaceItem(customerId, item,
+                            CartMutations.withQuantity(item, quantity, item.getUnitPrice()), LocalDateTime.now());
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+        }
+        throw concurrentModification(customerId);
+    }
+    
+    @Override
+    public Cart removeItem(String customerId, String productId) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Cart cart = cartRepository.findByCustomerId(customerId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+            Optional<Cart.CartItem> item = CartMutations.findItem(cart, productId);
+            if (item.isEmpty()) {
+                return cart;
+            }
+            Optional<Cart> updated = cartRepository.pullItem(customerId, item.get(), LocalDateTime.now());
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+        }
+        throw concurrentModification(customerId);
+    }
+    
+    @Override
+    public Cart applyAll(String customerId, Consumer<Cart> changes) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Optional<Cart> current = cartRepository.findByCustomerId(customerId);
+            Cart cart = current.orElseGet(() -> CartMutations.newCart(customerId));
+            Long expectedVersion = cart.getVersion();
+            changes.accept(cart);
+            
+            if (current.isEmpty()) {
+                try {
+                    return cartRepository.insert(cart);
+                } catch (DuplicateKeyException e) {
+                    continue;
+                }
+            }
+            Optional<Cart> replaced = cartRepository.replaceIfUnchanged(cart, expectedVersion);
+            if (replaced.isPresent()) {
+                return replaced.get();
+            }
+        }
+        throw concurrentModification(customerId);
+    }
+    
+    @Override
+    public long repriceItems(Map<String, BigDecimal> unitPriceByProductId) {
+        return cartRepository.repriceItems(unitPriceByProductId);
+    }
+    
+    @Override
+    public long removeItemsForProducts(Collection<String> productIds) {
+        return cartRepository.removeItemsForProducts(productIds);
+    }
+    
+    private static IllegalStateException concurrentModification(String customerId) {
+        return new IllegalStateException("Cart for customer " + customerId + " kept changing, giving up after "
+                + MAX_ATTEMPTS + " attempts");
+    }
+}
\ No newline at end of file
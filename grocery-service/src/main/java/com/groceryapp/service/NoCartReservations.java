@@ -0,0 +1,43 @@
+package com.groceryapp.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default: nothing is held, every customer sees the full stock.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.reservations.enabled", havingValue = "false", matchIfMissing = true)
+public class NoCartReservations implements CartReservations {
+    
+    @Override
+    public int available(String customerId, String productId, int stock) {
+        return stock;
+    }
+    
+    @Override
+    public void hold(String customerId, String productId, int quantity, int stock) {
+        // Nothing to hold
+    }
+    
+    @Override
+    public int tryHold(String customerId, String productId, int quantity, int stock) {
+        // Nothing to hold; the cart write checks the stock
+        return 0;
+    }
+    
+    @Override
+    public int held(String customerId, String productId) {
+        return 0;
+    }
+    
+    @Override
+    public void release(String customerId, String productId) {
+        // Nothing to release
+    }
+    
+    @Override
+    public void releaseAll(String customerId) {
+        // Nothing to release
+    }
+}
\ No newline at end of file
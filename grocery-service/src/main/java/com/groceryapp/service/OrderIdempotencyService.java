@@ -0,0 +1,233 @@
+package com.groceryapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.common.dto.OrderDto;
+import com.groceryapp.common.exception.BadRequestException;
+import com.groceryapp.common.exception.ConflictException;
+import com.groceryapp.persistence.model.IdempotencyKey;
+import com.groceryapp.persistence.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes order creation safe to retry with an Idempotency-Key.
+ *
+ * A key is scoped to the customer and claimed by inserting it into the
+ * idempotency_keys collection, whose unique _id lets exactly one request across
+ * all nodes run the order. The claim already names the id the order will be
+ * created with, so a retry can always find the order, even when the node died
+ * before marking the key completed. A retry of a created order returns it
+ * without validating or touching stock again. A retry arriving while the
+ * original still runs on this node waits for its result; elsewhere it gets a
+ * conflict until the claim's {@code orders.idempotency.lease-ms} lease expires,
+ * after which it takes the key over if the order was never created. Reusing a
+ * key for a different request is rejected, and a key whose request failed is
+ * released so the request can be retried.
+ */
+@Slf4j
+@Service
+public class OrderIdempotencyService {
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final OrderService orderService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final long waitMillis;
+    private final long leaseMillis;
+    
+    // Requests running on this node, by scoped key
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    
+    public OrderIdempotencyService(OrderService orderService,
+                                   IdempotencyKeyRepository idempotencyKeyRepository,
+                                   ObjectMapper objectMapper,
+                                   @Value("${orders.idempotency.ttl-hours:24}") long ttlHours,
+                                   @Value("${orders.idempotency.wait-ms:10000}") long waitMillis,
+                                   @Value("${orders.idempotency.lease-ms:30000}") long leaseMillis) {
+        this.orderService = orderService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitMillis = waitMillis;
+        this.leaseMillis = leaseMillis;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareCollection() {
+        idempotencyKeyRepository.ensureIndexes(ttl);
+    }
+    
+    /**
+     * Creates the order once per customer and key; without a key the order is
+     * simply created.
+     *
+     * @throws ConflictException when the same request is still running elsewhere
+     * @throws BadRequestException when the key was used for a different request
+     */
+    public OrderDto createOrder(String idempotencyKey, OrderDto orderDto) {
+        if (idempotencyKey == null) {
+            return orderService.createOrder(orderDto);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = orderDto.getCustomerId() + ":" + idempotencyKey;
+        String requestHash = hash(orderDto);
+        
+        InFlight mine = new InFlight(requestHash);
+        InFlight running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            checkSameRequest(running.requestHash, requestHash);
+            return await(running);
+        }
+        try {
+            OrderDto order = claimAndCreate(scopedKey, requestHash, orderDto);
+            mine.result.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+    
+    private OrderDto claimAndCreate(String scopedKey, String requestHash, OrderDto orderDto) {
+        Optional<IdempotencyKey> stored = idempotencyKeyRepository.findById(scopedKey);
+        if (stored.isPresent()) {
+            return replay(stored.get(), requestHash, orderDto);
+        }
+        String orderId = OrderService.newOrderId();
+        try {
+            idempotencyKeyRepository.insert(new IdempotencyKey(scopedKey, orderDto.getCustomerId(), requestHash,
+                    orderId, LocalDateTime.now(), leaseEnd(), null));
+        } catch (DuplicateKeyException e) {
+            // Claimed on another node since the lookup above
+            return idempotencyKeyRepository.findById(scopedKey)
+                    .map(key -> replay(key, requestHash, orderDto))
+                    .orElseThrow(() -> new ConflictException("A request with this Idempotency-Key is in progress"));
+        }
+        return create(scopedKey, orderId, orderDto);
+    }
+    
+    private OrderDto create(String scopedKey, String orderId, OrderDto orderDto) {
+        OrderDto order;
+        try {
+            order = orderService.createOrder(orderId, orderDto);
+        } catch (RuntimeException e) {
+            // Nothing was created, so the client may retry with the same key
+            idempotencyKeyRepository.release(scopedKey, orderId);
+            throw e;
+        }
+        try {
+            if (!idempotencyKeyRepository.complete(scopedKey, orderId, LocalDateTime.now())) {
+                log.warn("Idempotency key {} was taken over while order {} was created", scopedKey, orderId);
+            }
+        } catch (RuntimeException e) {
+            // The key already names the order, so a retry still finds it
+            log.error("Failed to complete idempotency key {} for order {}", scopedKey, orderId, e);
+        }
+        return order;
+    }
+    
+    private OrderDto replay(IdempotencyKey key, String requestHash, OrderDto orderDto) {
+        checkSameRequest(key.getRequestHash(), requestHash);
+        if (key.getCompletedAt() == null) {
+            return resume(key, orderDto);
+        }
+        log.info("Replaying order {} for a repeated request", key.getOrderId());
+        return orderService.getOrderById(key.getOrderId());
+    }
+    
+    /**
+     * Handles a retry of a request that never completed its key: the order may
+     * still have been created, the original may still be running, or it died and
+     * its lease ran out.
+     */
+    private OrderDto resume(IdempotencyKey key, OrderDto orderDto) {
+        Optional<OrderDto> created = key.getOrderId() != null
+                ? orderService.findOrderById(key.getOrderId())
+                : Optional.empty();
+        if (created.isPresent()) {
+            log.info("Replaying order {} for a repeated request", key.getOrderId());
+            return created.get();
+        }
+        if (key.getLeaseExpiresAt() != null && LocalDateTime.now().isBefore(key.getLeaseExpiresAt())) {
+            throw new ConflictException("A request with this Idempotency-Key is in progress");
+        }
+        String orderId = OrderService.newOrderId();
+        if (!idempotencyKeyRepository.takeOver(key.getId(), key.getOrderId(), orderId, leaseEnd())) {
+            throw new ConflictException("A request with this Idempotency-Key is in progress");
+        }
+        log.warn("Took over idempotency key {} after its lease expired without order {}", key.getId(),
+                key.getOrderId());
+        return create(key.getId(), orderId, orderDto);
+    }
+    
+    private LocalDateTime leaseEnd() {
+        return LocalDateTime.now().plusNanos(leaseMillis * 1_000_000);
+    }
+    
+    private OrderDto await(InFlight running) {
+        try {
+            return running.result.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this Idempotency-Key is in progress");
+        }
+    }
+    
+    private static void checkSameRequest(String expectedHash, String requestHash) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used for a different request");
+        }
+    }
+    
+    private String hash(OrderDto orderDto) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(orderDto);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Order cannot be serialized", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static final class InFlight {
+        
+        final String requestHash;
+        final CompletableFuture<OrderDto> result = new CompletableFuture<>();
+        
+        InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.dto.OrderDto;
+import com.groceryapp.common.dto.OrderIngestionStatusDto;
+import com.groceryapp.common.enums.OrderIngestionState;
+import com.groceryapp.common.exception.BadRequestException;
+import com.groceryapp.common.exception.OrderValidationException;
+import com.groceryapp.common.exception.ResourceNotFoundException;
+import com.groceryapp.common.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous checkout: orders are accepted into a bounded in-process queue and
+ * placed by a pool of workers, each taking up to {@code orders.async.batch-size}
+ * queued orders at a time and placing them with {@link OrderService#placeOrders}.
+ *
+ * A full queue refuses new orders with a Retry-After estimated from the queue
+ * length and the recent time per order. The state of every order accepted on this
+ * node is kept for {@code orders.async.status-ttl-ms} after it completes; later
+ * on, or from another node, a created order is still found in MongoDB. Queued
+ * orders only live in memory, so shutdown stops accepting and drains the queue.
+ */
+@Slf4j
+@Component
+public class OrderIngestionQueue {
+    
+    private static final long POLL_MILLIS = 500;
+    
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final long statusTtlMillis;
+    private final BlockingQueue<OrderSubmission> queue;
+    private final Map<String, OrderIngestionStatusDto> statuses = new ConcurrentHashMap<>();
+    
+    private ExecutorService workerPool;
+    private volatile boolean accepting;
+    // Moving average of the time spent per order, used for Retry-After
+    private volatile double millisPerOrder = 50;
+    
+    public OrderIngestionQueue(OrderService orderService,
+                               @Value("${orders.async.enabled:false}") boolean enabled,
+                               @Value("${orders.async.workers:4}") int workers,
+                               @Value("${orders.async.batch-size:20}") int batchSize,
+                               @Value("${orders.async.queue-capacity:1000}") int queueCapacity,
+                               @Value("${orders.async.status-ttl-ms:600000}") long statusTtlMillis) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.statusTtlMillis = statusTtlMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger workerCount = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "order-ingestion-" + workerCount.incrementAndGet()));
+        accepting = true;
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::work);
+        }
+        log.info("Asynchronous checkout started with {} workers and room for {} orders", workers,
+                queue.remainingCapacity());
+    }
+    
+    /**
+     * Queues the order under a new id and returns its QUEUED status.
+     *
+     * @throws TooManyRequestsException when the queue is full
+     */
+    public OrderIngestionStatusDto submit(OrderDto orderDto) {
+        if (!enabled) {
+            throw new BadRequestException("Asynchronous checkout is not enabled");
+        }
+        if (!accepting) {
+            throw new TooManyRequestsException("Checkout is shutting down", retryAfterSeconds());
+        }
+        OrderSubmission submission = new OrderSubmission(OrderService.newOrderId(), orderDto);
+        OrderIngestionStatusDto status = status(submission.getOrderId(), OrderIngestionState.QUEUED, null);
+        status.setAcceptedAt(LocalDateTime.now());
+        statuses.put(submission.getOrderId(), status);
+        if (!queue.offer(submission)) {
+            statuses.remove(submission.getOrderId());
+            throw new TooManyRequestsException("Too many orders are waiting, please retry later",
+                    retryAfterSeconds());
+        }
+        return status;
+    }
+    
+    /**
+     * @throws ResourceNotFoundException when the order is neither known to this node nor stored
+     */
+    public OrderIngestionStatusDto getStatus(String orderId) {
+        OrderIngestionStatusDto status = statuses.get(orderId);
+        if (status != null) {
+            return status;
+        }
+        OrderDto order = orderService.getOrderById(orderId);
+        return status(orderId, OrderIngestionState.CREATED, order);
+    }
+    
+    private void work() {
+        List<OrderSubmission> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                OrderSubmission first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order ingestion worker failed on a batch of {} orders", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void process(List<OrderSubmission> batch) {
+        long started = System.nanoTime();
+        for (OrderSubmission submission : batch) {
+            statuses.computeIfPresent(submission.getOrderId(), (id, status) -> transition(status,
+                    OrderIngestionState.PROCESSING));
+        }
+        
+        List<OrderPlacement> placements;
+        try {
+            placements = orderService.placeOrders(batch);
+        } catch (RuntimeException e) {
+            log.error("Failed to place a batch of {} orders", batch.size(), e);
+            placements = batch.stream().map(submission -> OrderPlacement.failed(e)).toList();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i).getOrderId(), placements.get(i));
+        }
+        
+        double elapsed = (System.nanoTime() - started) / 1_000_000.0 / batch.size();
+        millisPerOrder = 0.8 * millisPerOrder + 0.2 * elapsed;
+    }
+    
+    private void complete(String orderId, OrderPlacement placement) {
+        OrderIngestionStatusDto status;
+        if (placement.getError() == null) {
+            status = status(orderId, OrderIngestionState.CREATED, placement.getOrder());
+        } else {
+            status = status(orderId, OrderIngestionState.FAILED, null);
+            RuntimeException error = placement.getError();
+            if (error instanceof BadRequestException || error instanceof ResourceNotFoundException) {
+                status.setMessage(error.getMessage());
+            } else {
+                log.error("Failed to place order {}", orderId, error);
+                status.setMessage("Order could not be processed");
+            }
+            if (error instanceof OrderValidationException validation) {
+                status.setErrors(validation.getErrors());
+            }
+        }
+        status.setCompletedAt(LocalDateTime.now());
+        statuses.computeIfPresent(orderId, (id, previous) -> {
+            status.setAcceptedAt(previous.getAcceptedAt());
+            return status;
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${orders.async.status-ttl-ms:600000}")
+    public void evictCompleted() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(statusTtlMillis * 1_000_000);
+        statuses.values().removeIf(status -> status.getCompletedAt() != null
+                && status.getCompletedAt().isBefore(cutoff));
+    }
+    
+    private long retryAfterSeconds() {
+        double waitMillis = (queue.size() + 1) * millisPerOrder / workers;
+        return Math.max(1, (long) Math.ceil(waitMillis / 1000));
+    }
+    
+    private static OrderIngestionStatusDto transition(OrderIngestionStatusDto status, OrderIngestionState state) {
+        OrderIngestionStatusDto next = status(status.getOrderId(), state, null);
+        next.setAcceptedAt(status.getAcceptedAt());
+        return next;
+    }
+    
+    private static OrderIngestionStatusDto status(String orderId, OrderIngestionState state, OrderDto order) {
+        OrderIngestionStatusDto status = new OrderIngestionStatusDto();
+        status.setOrderId(orderId);
+        status.setState(state.name());
+        status.setOrder(order);
+        return status;
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (workerPool == null) {
+            return;
+        }
+        accepting = false;
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Asynchronous checkout stopped with {} orders still queued", queue.size());
+            workerPool.shutdownNow();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.groceryapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues human-readable order numbers such as ORD-20260917-000104213.
+ *
+ * The numeric part comes from a cluster-wide sequence that every node takes in
+ * blocks of {@code orders.number.block-size}, so numbers are unique across nodes
+ * without a query per order, and numbers from one node increase over time. The
+ * UTC date the number was issued is a prefix for readability only. Issuing
+ * numbers within a block is lock-free; only taking the next block synchronizes.
+ * Numbers left in a block when a node stops are never used.
+ */
+@Component
+public class OrderNumberGenerator {
+    
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    
+    private final SequenceGenerator sequenceGenerator;
+    private final int blockSize;
+    
+    private volatile Block block;
+    
+    public OrderNumberGenerator(SequenceGenerator sequenceGenerator,
+                                @Value("${orders.number.block-size:100}") int blockSize) {
+        this.sequenceGenerator = sequenceGenerator;
+        this.blockSize = blockSize;
+    }
+    
+    public String next() {
+        return String.format("ORD-%s-%09d", LocalDate.now(ZoneOffset.UTC).format(DATE), nextSequence());
+    }
+    
+    private long nextSequence() {
+        while (true) {
+            Block current = block;
+            if (current != null) {
+                long value = current.next.getAndIncrement();
+                if (value <= current.last) {
+                    return value;
+                }
+            }
+            refill(current);
+        }
+    }
+    
+    private synchronized void refill(Block exhausted) {
+        // Another thread may already have taken a new block
+        if (block == exhausted) {
+            long first = sequenceGenerator.nextBlock(SequenceGenerator.ORDER_NUMBERS, blockSize);
+            block = new Block(first, first + blockSize - 1);
+        }
+    }
+    
+    private static final class Block {
+        
+        final AtomicLong next;
+        final long last;
+        
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
\ No newline at end of file
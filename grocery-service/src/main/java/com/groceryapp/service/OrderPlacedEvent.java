@@ -0,0 +1,15 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Order;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by {@link OrderService} after a new order has been saved.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderPlacedEvent {
+    
+    private final Order order;
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.dto.OrderDto;
+import lombok.Getter;
+
+/**
+ * Outcome of placing one order of a batch: the created order, or why it was rejected.
+ */
+@Getter
+public final class OrderPlacement {
+    
+    private final OrderDto order;
+    
+    private final RuntimeException error;
+    
+    private OrderPlacement(OrderDto order, RuntimeException error) {
+        this.order = order;
+        this.error = error;
+    }
+    
+    static OrderPlacement placed(OrderDto order) {
+        return new OrderPlacement(order, null);
+    }
+    
+    static OrderPlacement failed(RuntimeException error) {
+        return new OrderPlacement(null, error);
+    }
+}
\ No newline at end of file
@@ -1,25 +1,46 @@
 package com.groceryapp.service;
 
+import com.groceryapp.common.dto.CursorPageDto;
 import com.groceryapp.common.dto.OrderDto;
 import com.groceryapp.common.dto.OrderItemDto;
+import com.groceryapp.common.dto.OrderItemErrorDto;
+import com.groceryapp.common.dto.OrderSummaryDto;
 import com.groceryapp.common.enums.OrderStatus;
 import com.groceryapp.common.enums.PaymentStatus;
 import com.groceryapp.common.enums.PaymentMethod;
 import com.groceryapp.common.exception.BadRequestException;
+import com.groceryapp.common.exception.OrderValidationException;
 import com.groceryapp.common.exception.ResourceNotFoundException;
 import com.groceryapp.persistence.model.Order;
 import com.groceryapp.persistence.model.Product;
+import com.groceryapp.persistence.projection.OrderSummary;
+import com.groceryapp.persistence.projection.StockReservation;
 import com.groceryapp.persistence.repository.OrderRepository;
 import com.groceryapp.persistence.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for Order operations
@@ -31,6 +52,15 @@ public class OrderService {
     
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SequenceGenerator sequenceGenerator;
+    private final ProductPriceCache productPriceCache;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final CartReservations cartReservations;
+    
+    @Value("${orders.reservations.lease-ms:300000}")
+    private long reservationLeaseMillis;
     
     public List<OrderDto> getAllOrders() {
         log.info("Fetching all orders");
@@ -40,6 +70,49 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
     
+    public CursorPageDto<OrderDto> getOrdersPage(String cursor, Integer limit) {
+        log.info("Fetching order page after cursor: {}", cursor);
+        int pageSize = CursorPagination.pageSize(limit);
+        String afterId = CursorPagination.afterId(cursor);
+        Pageable rows = CursorPagination.firstRows(pageSize);
+        List<Order> orders = afterId == null
+                ? orderRepository.findAllBy(rows)
+                : orderRepository.findByIdGreaterThan(afterId, rows);
+        return CursorPagination.toPage(orders, pageSize, Order::getId, this::convertToDto);
+    }
+    
+    /**
+     * Keyset-paginated order history rows, read through a field projection.
+     */
+    public CursorPageDto<OrderSummaryDto> getOrderSummariesPage(String cursor, Integer limit) {
+        log.info("Fetching order summary page after cursor: {}", cursor);
+        int pageSize = CursorPagination.pageSize(limit);
+        String afterId = CursorPagination.afterId(cursor);
+        Pageable rows = CursorPagination.firstRows(pageSize);
+        List<OrderSummary> orders = afterId == null
+                ? orderRepository.findSummariesBy(rows)
+                : orderRepository.findSummariesByIdGreaterThan(afterId, rows);
+        return CursorPagination.toPage(orders, pageSize, OrderSummary::getId, this::convertToSummaryDto);
+    }
+    
+    public List<OrderSummaryDto> getOrderSummariesByCustomerId(String customerId) {
+        log.info("Fetching order summaries for customer: {}", customerId);
+        return orderRepository.findSummariesByCustomerId(customerId, Sort.by(Sort.Direction.DESC, "orderDate"))
+                .stream()
+                .map(this::convertToSummaryDto)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Streams every order from a MongoDB cursor to the sink, one at a time.
+     */
+    public void exportOrders(Consumer<OrderDto> sink) {
+        log.info("Exporting all orders");
+        try (Stream<Order> orders = orderRepository.streamAllBy()) {
+            orders.map(this::convertToDto).forEach(sink);
+        }
+    }
+    
     public OrderDto getOrderById(String id) {
         log.info("Fetching order with id: {}", id);
         Order order = orderRepository.findById(id)
@@ -47,6 +120,17 @@ public class OrderService {
         return convertToDto(order);
     }
     
+    public Optional<OrderDto> findOrderById(String id) {
+        return orderRepository.findById(id).map(this::convertToDto);
+    }
+    
+    public OrderDto getOrderByNumber(String orderNumber) {
+        log.info("Fetching order with number: {}", orderNumber);
+        Order order = orderRepository.findByOrderNumber(orderNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with number: " + orderNumber));
+        return convertToDto(order);
+    }
+    
     public List<OrderDto> getOrdersByCustomerId(String customerId) {
         log.info("Fetching orders for customer: {}", customerId);
         return orderRepository.findByCustomerId(customerId)
@@ -68,25 +152,131 @@ public class OrderService {
         }
     }
     
-    @Transactional
     public OrderDto createOrder(OrderDto orderDto) {
+        return createOrder(newOrderId(), orderDto);
+    }
+    
+    /**
+     * Creates the order under an id issued beforehand by the caller; any id in
+     * the request body is ignored.
+     */
+    @Transactional
+    public OrderDto createOrder(String orderId, OrderDto orderDto) {
         log.info("Creating new order for customer: {}", orderDto.getCustomerId());
+        OrderPlacement placement = placeOrders(List.of(new OrderSubmission(orderId, orderDto))).get(0);
+        if (placement.getError() != null) {
+            throw placement.getError();
+        }
+        return placement.getOrder();
+    }
+    
+    public static String newOrderId() {
+        return new ObjectId().toHexString();
+    }
+    
+    /**
+     * Places a batch of orders, each one independently: an order that fails
+     * validation or cannot get its stock fails alone. All products are read with
+     * one findAllById, each order takes its stock with one guarded bulk write, and
+     * the accepted orders are inserted together under their submitted ids.
+     *
+     * @return one placement per order, in the given order
+     */
+    public List<OrderPlacement> placeOrders(List<OrderSubmission> submissions) {
+        ProductLookup products = productPriceCache.freshLookup();
+        products.prefetch(submissions.stream()
+                .map(OrderSubmission::getOrder)
+                .filter(orderDto -> orderDto.getItems() != null)
+                .flatMap(orderDto -> orderDto.getItems().stream())
+                .map(OrderItemDto::getProductId)
+                .toList());
         
-        // Validate and calculate order
-        validateAndCalculateOrder(orderDto);
+        OrderPlacement[] placements = new OrderPlacement[submissions.size()];
+        List<Reservation> reservations = new ArrayList<>();
+        Set<String> touchedProducts = new HashSet<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            try {
+                OrderDto orderDto = submissions.get(i).getOrder();
+                validateAndCalculateOrder(orderDto, products);
+                Order order = toNewOrder(submissions.get(i).getOrderId(), orderDto);
+                
+                // Take the stock first; the order is only saved once all of it is ours
+                Reservation reservation = new Reservation(i, order);
+                touchedProducts.addAll(reservation.quantities.keySet());
+                reserveStock(reservation.token, reservation.quantities, order.getItems());
+                reservations.add(reservation);
+            } catch (RuntimeException e) {
+                placements[i] = OrderPlacement.failed(e);
+            }
+        }
         
+        try {
+            if (!reservations.isEmpty()) {
+                saveReserved(reservations, placements);
+            }
+        } finally {
+            if (!touchedProducts.isEmpty()) {
+                refreshCatalog(touchedProducts);
+            }
+        }
+        return List.of(placements);
+    }
+    
+    private Order toNewOrder(String orderId, OrderDto orderDto) {
         Order order = convertToEntity(orderDto);
+        order.setId(orderId);
+        order.setOrderNumber(orderNumberGenerator.next());
         order.setOrderDate(LocalDateTime.now());
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
         order.setStatus(OrderStatus.PENDING);
         order.setPaymentStatus(PaymentStatus.PENDING);
+        return order;
+    }
+    
+    private void saveReserved(List<Reservation> reservations, OrderPlacement[] placements) {
+        List<Order> orders = reservations.stream().map(reservation -> reservation.order).toList();
+        Set<String> savedNumbers;
+        try {
+            orderRepository.insert(orders);
+            savedNumbers = orders.stream().map(Order::getOrderNumber).collect(Collectors.toSet());
+        } catch (RuntimeException e) {
+            // The insert stops at the first failure; find out which orders made it. Order numbers
+            // are issued for this run only, so an id clashing with a stored order never counts.
+            savedNumbers = orderRepository.findSummariesByOrderNumberIn(
+                            orders.stream().map(Order::getOrderNumber).toList()).stream()
+                    .map(OrderSummary::getOrderNumber)
+                    .collect(Collectors.toSet());
+            for (Reservation reservation : reservations) {
+                if (!savedNumbers.contains(reservation.order.getOrderNumber())) {
+                    releaseStock(reservation.token, reservation.quantities);
+                    placements[reservation.index] = OrderPlacement.failed(e);
+                }
+            }
+        }
         
-        // Update product quantities
-        updateProductQuantities(order.getItems());
-        
-        Order savedOrder = orderRepository.save(order);
-        return convertToDto(savedOrder);
+        List<String> tokens = new ArrayList<>();
+        Set<String> productIds = new HashSet<>();
+        for (Reservation reservation : reservations) {
+            if (savedNumbers.contains(reservation.order.getOrderNumber())) {
+                tokens.add(reservation.token);
+                productIds.addAll(reservation.quantities.keySet());
+                placements[reservation.index] = OrderPlacement.placed(convertToDto(reservation.order));
+            }
+        }
+        if (tokens.isEmpty()) {
+            return;
+        }
+        try {
+            productRepository.confirmReservations(tokens, productIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to clear {} stock reservations", tokens.size(), e);
+        }
+        for (Reservation reservation : reservations) {
+            if (savedNumbers.contains(reservation.order.getOrderNumber())) {
+                eventPublisher.publishEvent(new OrderPlacedEvent(reservation.order));
+            }
+        }
     }
     
     public OrderDto updateOrderStatus(String id, String status) {
@@ -136,28 +326,51 @@ public class OrderService {
         }
         
         // Restore product quantities
-        restoreProductQuantities(order.getItems());
+        Map<String, Integer> quantities = quantitiesByProduct(order.getItems());
+        productRepository.adjustStock(quantities, nextChangeSeqBlock(quantities), LocalDateTime.now());
+        refreshCatalog(quantities.keySet());
         
         order.setStatus(OrderStatus.CANCELLED);
         order.setUpdatedAt(LocalDateTime.now());
         orderRepository.save(order);
     }
     
-    private void validateAndCalculateOrder(OrderDto orderDto) {
+    private void validateAndCalculateOrder(OrderDto orderDto, ProductLookup products) {
         if (orderDto.getItems() == null || orderDto.getItems().isEmpty()) {
             throw new BadRequestException("Order must contain at least one item");
         }
         
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        
+        // One findAllById for the whole basket; every rejected line is reported at once
+        products.prefetch(orderDto.getItems().stream().map(OrderItemDto::getProductId).toList());
+        List<OrderItemErrorDto> errors = new ArrayList<>();
+        Map<String, Integer> requested = new LinkedHashMap<>();
         for (OrderItemDto item : orderDto.getItems()) {
-            Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + item.getProductId()));
-            
-            if (product.getStockQuantity() < item.getQuantity()) {
-                throw new BadRequestException("Insufficient stock for product: " + product.getName());
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                errors.add(new OrderItemErrorDto(item.getProductId(), "Quantity must be positive"));
+            } else {
+                requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
             }
-            
+        }
+        requested.forEach((productId, quantity) -> {
+            Optional<Product> product = products.find(productId);
+            if (product.isEmpty()) {
+                errors.add(new OrderItemErrorDto(productId, "Product not found: " + productId));
+            } else if (product.get().getStockQuantity() < quantity) {
+                errors.add(new OrderItemErrorDto(productId, "Insufficient stock for product: "
+                        + product.get().getName()));
+            } else if (cartReservations.available(orderDto.getCustomerId(), productId,
+                    product.get().getStockQuantity()) < quantity) {
+                errors.add(new OrderItemErrorDto(productId, "Remaining stock is held in other carts for product: "
+                        + product.get().getName()));
+            }
+        });
+        if (!errors.isEmpty()) {
+            throw new OrderValidationException(errors);
+        }
+        
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (OrderItemDto item : orderDto.getItems()) {
+            Product product = products.require(item.getProductId());
             item.setProductName(product.getName());
             item.setUnitPrice(product.getPrice());
             item.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
@@ -168,29 +381,118 @@ public class OrderService {
         orderDto.setTotalAmount(totalAmount);
     }
     
-    private void updateProductQuantities(List<Order.OrderItem> items) {
-        for (Order.OrderItem item : items) {
-            Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + item.getProductId()));
-            
-            product.setStockQuantity(product.getStockQuantity() - item.getQuantity());
-            productRepository.save(product);
+    /**
+     * Takes the stock for the whole order with one bulk write of guarded $inc
+     * updates. If any product is short, whatever was taken is put back and the
+     * order is rejected, so concurrent checkouts can never oversell.
+     */
+    private void reserveStock(String reservation, Map<String, Integer> quantities, List<Order.OrderItem> items) {
+        Set<String> reserved;
+        try {
+            reserved = productRepository.reserveStock(reservation, quantities, nextChangeSeqBlock(quantities),
+                    LocalDateTime.now());
+        } catch (RuntimeException e) {
+            releaseStock(reservation, quantities);
+            throw e;
+        }
+        if (reserved.size() < quantities.size()) {
+            if (!reserved.isEmpty()) {
+                releaseStock(reservation, quantities);
+            }
+            // Another checkout took the stock between validation and this write
+            Map<String, OrderItemErrorDto> errors = new LinkedHashMap<>();
+            for (Order.OrderItem item : items) {
+                if (!reserved.contains(item.getProductId())) {
+                    errors.putIfAbsent(item.getProductId(), new OrderItemErrorDto(item.getProductId(),
+                            "Insufficient stock for product: " + item.getProductName()));
+                }
+            }
+            throw new OrderValidationException(new ArrayList<>(errors.values()));
         }
     }
     
-    private void restoreProductQuantities(List<Order.OrderItem> items) {
+    // Only products still tagged with the reservation are given their stock back
+    private void releaseStock(String reservation, Map<String, Integer> quantities) {
+        productRepository.releaseReservation(reservation, quantities, nextChangeSeqBlock(quantities),
+                LocalDateTime.now());
+    }
+    
+    /**
+     * Settles stock reservations left behind when a node stopped between taking
+     * the stock and saving or releasing its order. A reservation older than
+     * {@code orders.reservations.lease-ms} is cleared if its order was saved and
+     * otherwise gives its stock back. Safe to run on every node at once.
+     */
+    @Scheduled(fixedDelayString = "${orders.reservations.sweep-interval-ms:60000}",
+               initialDelayString = "${orders.reservations.sweep-interval-ms:60000}")
+    public void releaseAbandonedReservations() {
+        List<StockReservation> stale = productRepository.findReservationsBefore(
+                LocalDateTime.now().minusNanos(reservationLeaseMillis * 1_000_000));
+        if (stale.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, Integer>> quantitiesByToken = new LinkedHashMap<>();
+        for (StockReservation reservation : stale) {
+            quantitiesByToken.computeIfAbsent(reservation.getToken(), token -> new LinkedHashMap<>())
+                    .put(reservation.getProductId(), reservation.getQuantity());
+        }
+        // Reservation tokens are order ids
+        Set<String> placed = orderRepository.findAllById(quantitiesByToken.keySet()).stream()
+                .map(Order::getId)
+                .collect(Collectors.toSet());
+        
+        Set<String> touchedProducts = new HashSet<>();
+        quantitiesByToken.forEach((token, quantities) -> {
+            touchedProducts.addAll(quantities.keySet());
+            if (placed.contains(token)) {
+                productRepository.confirmReservations(List.of(token), quantities.keySet());
+            } else {
+                log.warn("Returning stock of abandoned reservation {} for products {}", token, quantities.keySet());
+                releaseStock(token, quantities);
+            }
+        });
+        refreshCatalog(touchedProducts);
+    }
+    
+    private long nextChangeSeqBlock(Map<String, Integer> quantities) {
+        return sequenceGenerator.nextBlock(SequenceGenerator.PRODUCT_CHANGES, quantities.size());
+    }
+    
+    private void refreshCatalog(Collection<String> productIds) {
+        catalogCache.upsertAll(productRepository.findAllById(productIds));
+    }
+    
+    private static Map<String, Integer> quantitiesByProduct(List<Order.OrderItem> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
         for (Order.OrderItem item : items) {
-            Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + item.getProductId()));
-            
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+    
+    /**
+     * Stock taken for one order of a batch that is not saved yet, under the
+     * order's id as reservation token.
+     */
+    private static final class Reservation {
+        
+        final int index;
+        final Order order;
+        final String token;
+        final Map<String, Integer> quantities;
+        
+        Reservation(int index, Order order) {
+            this.index = index;
+            this.order = order;
+            this.token = order.getId();
+            this.quantities = quantitiesByProduct(order.getItems());
         }
     }
     
     private OrderDto convertToDto(Order order) {
         OrderDto dto = new OrderDto();
         dto.setId(order.getId());
+        dto.setOrderNumber(order.getOrderNumber());
         dto.setCustomerId(order.getCustomerId());
         dto.setCustomerName(order.getCustomerName());
         dto.setItems(order.getItems().stream()
@@ -209,6 +511,19 @@ public class OrderService {
         return dto;
     }
     
+    private OrderSummaryDto convertToSummaryDto(OrderSummary order) {
+        return new OrderSummaryDto(
+                order.getId(),
+                order.getOrderNumber(),
+                order.getCustomerId(),
+                order.getCustomerName(),
+                order.getTotalAmount(),
+                order.getStatus() != null ? order.getStatus().name() : null,
+                order.getPaymentStatus() != null ? order.getPaymentStatus().name() : null,
+                order.getOrderDate()
+        );
+    }
+    
     private Order convertToEntity(OrderDto orderDto) {
         Order order = new Order();
         order.setId(orderDto.getId());
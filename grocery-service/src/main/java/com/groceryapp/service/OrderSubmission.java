@@ -0,0 +1,21 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.dto.OrderDto;
+import lombok.Getter;
+
+/**
+ * One order to place, under an id issued by the server. The id is never taken
+ * from the request body, so a client cannot name an existing order.
+ */
+@Getter
+public final class OrderSubmission {
+    
+    private final String orderId;
+    
+    private final OrderDto order;
+    
+    OrderSubmission(String orderId, OrderDto order) {
+        this.orderId = orderId;
+        this.order = order;
+    }
+}
\ No newline at end of file
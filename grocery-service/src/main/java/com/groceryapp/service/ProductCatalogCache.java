@@ -0,0 +1,173 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Product;
+import com.groceryapp.persistence.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the in-process catalog snapshot used to serve product reads.
+ *
+ * Writers (ProductService, OrderService) push the entities they saved so the
+ * snapshot is swapped immediately after every local change. A scheduled full
+ * reload picks up changes made by other application nodes. Every swap is
+ * announced with a {@link CatalogChangedEvent} so derived indexes stay in step.
+ *
+ * Only the swap holds the write lock. Events are queued in version order and
+ * published once it is released by whichever writer holds the publish lock, so
+ * a writer never waits for listeners rebuilding after another writer's change,
+ * and derived indexes may trail the snapshot briefly. A full reload makes the
+ * changes queued before it stale, and they are dropped unpublished.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogCache {
+    
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final Object writeLock = new Object();
+    private final Object refreshLock = new Object();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    
+    // Swapped in but not yet announced, oldest version first; guarded by writeLock
+    private final Deque<CatalogChangedEvent> unpublished = new ArrayDeque<>();
+    
+    // Changes applied while a full reload is running, replayed on top of the reloaded snapshot
+    private List<List<Product>> pendingChanges;
+    
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval-ms:300000}",
+               initialDelayString = "${catalog.snapshot.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // Not current(): without a snapshot that would refresh again
+            CatalogSnapshot kept = snapshot.get();
+            log.error("Scheduled catalog snapshot refresh failed, keeping version {}",
+                    kept != null ? kept.getVersion() : "none", e);
+        }
+    }
+    
+    /**
+     * Reloads all active products from MongoDB and publishes a new snapshot.
+     */
+    public CatalogSnapshot refresh() {
+        synchronized (refreshLock) {
+            synchronized (writeLock) {
+                pendingChanges = new ArrayList<>();
+            }
+            List<Product> products;
+            try {
+                products = productRepository.findByActiveTrue();
+            } catch (RuntimeException e) {
+                synchronized (writeLock) {
+                    pendingChanges = null;
+                }
+                throw e;
+            }
+            CatalogSnapshot rebuilt;
+            synchronized (writeLock) {
+                rebuilt = CatalogSnapshot.of(products, versionCounter.incrementAndGet());
+                for (List<Product> change : pendingChanges) {
+                    rebuilt = rebuilt.withProducts(change, versionCounter.incrementAndGet());
+                }
+                pendingChanges = null;
+                snapshot.set(rebuilt);
+                // The rebuilt snapshot already holds every change still waiting to be announced
+                unpublished.clear();
+                unpublished.add(new CatalogChangedEvent(rebuilt, List.of(), true));
+            }
+            log.info("Catalog snapshot rebuilt with {} active products (version {})", rebuilt.size(), rebuilt.getVersion());
+            publishPending();
+            return rebuilt;
+        }
+    }
+    
+    public void upsert(Product product) {
+        upsertAll(List.of(product));
+    }
+    
+    /**
+     * Applies saved product entities to the snapshot. Inactive products are removed.
+     */
+    public void upsertAll(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<Product> changed = List.copyOf(products);
+        synchronized (writeLock) {
+            if (pendingChanges != null) {
+                pendingChanges.add(changed);
+            }
+            CatalogSnapshot base = snapshot.get();
+            // Before the first load there is nothing to patch; the load will see the change
+            if (base != null) {
+                CatalogSnapshot updated = base.withProducts(changed, versionCounter.incrementAndGet());
+                snapshot.set(updated);
+                unpublished.add(new CatalogChangedEvent(updated, changed, false));
+            }
+        }
+        publishPending();
+    }
+    
+    /**
+     * Publishes the queued events in version order. A writer finding another one
+     * publishing leaves its event to that one.
+     */
+    private void publishPending() {
+        while (publishLock.tryLock()) {
+            try {
+                CatalogChangedEvent event;
+                while ((event = nextUnpublished()) != null) {
+                    try {
+                        eventPublisher.publishEvent(event);
+                    } catch (RuntimeException e) {
+                        log.error("Catalog listener failed on snapshot version {}", event.getSnapshot().getVersion(), e);
+                    }
+                }
+            } finally {
+                publishLock.unlock();
+            }
+            // An event queued after the last poll but before the unlock has no one else to publish it
+            synchronized (writeLock) {
+                if (unpublished.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    private CatalogChangedEvent nextUnpublished() {
+        synchronized (writeLock) {
+            return unpublished.poll();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,324 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.enums.SearchOperator;
+import com.groceryapp.persistence.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant term lookup over product names and brands.
+ *
+ * The distinct name and brand terms form a vocabulary, and every term is indexed
+ * under the character trigrams of its boundary-padded form ("$tea$" gives "$te",
+ * "tea" and "ea$"). A query term with an edit budget of k collects the vocabulary
+ * terms sharing at least {@code grams - 3k} trigrams with it, as each edit can
+ * destroy at most three of them, and only those candidates are verified with a
+ * banded Levenshtein distance. Exact prefixes still match with distance zero.
+ *
+ * The edit budget follows the term length: none up to 2 characters, one up to
+ * 5 and {@code catalog.search.fuzzy.max-edits} beyond that. A term no product
+ * uses any more leaves the vocabulary and the trigram postings, and its ordinal
+ * is given to the next new term.
+ */
+@Slf4j
+@Component
+public class ProductFuzzyIndex {
+    
+    private final int maxEdits;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final TreeMap<String, Term> vocabulary = new TreeMap<>();
+    private final List<Term> termsByOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, TermList> trigrams = new HashMap<>();
+    private final Map<String, Set<String>> termsByProductId = new HashMap<>();
+    private final Map<String, Integer> ordinalByProductId = new HashMap<>();
+    private int nextProductOrdinal;
+    
+    public ProductFuzzyIndex(@Value("${catalog.search.fuzzy.max-edits:2}") int maxEdits) {
+        this.maxEdits = maxEdits;
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isRebuilt()) {
+                rebuild(event.getSnapshot().getProducts());
+                return;
+            }
+            for (Product product : event.getChangedProducts()) {
+                removeProduct(product.getId());
+                if (product.isActive()) {
+                    addProduct(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the ids of active products whose name or brand terms match the query
+     * terms within their edit budget, fewest total edits first and oldest indexed
+     * first among equals.
+     */
+    public List<String> search(String query, SearchOperator operator) {
+        Set<String> queryTerms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            // Sum of the best distance per matched query term, and how many matched
+            Map<String, int[]> scores = new HashMap<>();
+            for (String queryTerm : queryTerms) {
+                Map<String, Integer> distances = match(queryTerm);
+                for (Map.Entry<String, Integer> entry : distances.entrySet()) {
+                    int[] score = scores.computeIfAbsent(entry.getKey(), key -> new int[2]);
+                    score[0] += entry.getValue();
+                    score[1]++;
+                }
+            }
+            
+            return scores.entrySet()
+                    .stream()
+                    .filter(entry -> operator == SearchOperator.OR || entry.getValue()[1] == queryTerms.size())
+                    .sorted(Comparator.<Map.Entry<String, int[]>>comparingInt(entry -> entry.getValue()[0])
+                            .thenComparingInt(entry -> ordinalByProductId.get(entry.getKey())))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Best distance per product over all vocabulary terms matching the query term.
+     */
+    private Map<String, Integer> match(String queryTerm) {
+        Map<String, Integer> distances = new HashMap<>();
+        for (Term term : vocabulary.subMap(queryTerm, queryTerm + Character.MAX_VALUE).values()) {
+            collect(term, 0, distances);
+        }
+        
+        int budget = editBudget(queryTerm.length());
+        if (budget == 0) {
+            return distances;
+        }
+        List<String> grams = trigramsOf(queryTerm);
+        int required = Math.max(1, grams.size() - 3 * budget);
+        // Shared trigram count per term ordinal, only for terms sharing at least one
+        Map<Integer, Integer> shared = new HashMap<>();
+        List<Term> candidates = new ArrayList<>();
+        for (String gram : grams) {
+            TermList list = trigrams.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                int ordinal = list.terms[i];
+                if (shared.merge(ordinal, 1, Integer::sum) == required) {
+                    candidates.add(termsByOrdinal.get(ordinal));
+                }
+            }
+        }
+        for (Term term : candidates) {
+            if (Math.abs(term.text.length() - queryTerm.length()) > budget) {
+                continue;
+            }
+            int distance = boundedDistance(queryTerm, term.text, budget);
+            if (distance <= budget) {
+                collect(term, distance, distances);
+            }
+        }
+        return distances;
+    }
+    
+    private static void collect(Term term, int distance, Map<String, Integer> distances) {
+        for (String productId : term.productIds) {
+            distances.merge(productId, distance, Math::min);
+        }
+    }
+    
+    private int editBudget(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? Math.min(1, maxEdits) : maxEdits;
+    }
+    
+    /**
+     * Levenshtein distance of a and b, or max + 1 once it is known to exceed max.
+     * Only the diagonal band of width 2 * max + 1 is evaluated.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int over = max + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= max ? j : over;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            Arrays.fill(current, over);
+            current[0] = i <= max ? i : over;
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return over;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+    
+    private static List<String> trigramsOf(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+    
+    private void rebuild(List<Product> products) {
+        vocabulary.clear();
+        termsByOrdinal.clear();
+        freeOrdinals.clear();
+        trigrams.clear();
+        termsByProductId.clear();
+        ordinalByProductId.clear();
+        nextProductOrdinal = 0;
+        for (Product product : products) {
+            addProduct(product);
+        }
+        log.info("Product fuzzy index rebuilt with {} terms and {} trigrams", vocabulary.size(), trigrams.size());
+    }
+    
+    private void addProduct(Product product) {
+        Set<String> terms = new HashSet<>();
+        terms.addAll(SearchTokenizer.tokenize(product.getName()));
+        terms.addAll(SearchTokenizer.tokenize(product.getBrand()));
+        for (String text : terms) {
+            Term term = vocabulary.get(text);
+            if (term == null) {
+                term = newTerm(text);
+                for (String gram : new HashSet<>(trigramsOf(text))) {
+                    trigrams.computeIfAbsent(gram, key -> new TermList()).add(term.ordinal);
+                }
+            }
+            term.productIds.add(product.getId());
+        }
+        termsByProductId.put(product.getId(), terms);
+        ordinalByProductId.put(product.getId(), nextProductOrdinal++);
+    }
+    
+    private void removeProduct(String productId) {
+        ordinalByProductId.remove(productId);
+        Set<String> terms = termsByProductId.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String text : terms) {
+            Term term = vocabulary.get(text);
+            term.productIds.remove(productId);
+            if (term.productIds.isEmpty()) {
+                removeTerm(term);
+            }
+        }
+    }
+    
+    private Term newTerm(String text) {
+        Integer free = freeOrdinals.poll();
+        Term term = new Term(text, free != null ? free : termsByOrdinal.size());
+        if (free != null) {
+            termsByOrdinal.set(free, term);
+        } else {
+            termsByOrdinal.add(term);
+        }
+        vocabulary.put(text, term);
+        return term;
+    }
+    
+    private void removeTerm(Term term) {
+        vocabulary.remove(term.text);
+        for (String gram : new HashSet<>(trigramsOf(term.text))) {
+            TermList list = trigrams.get(gram);
+            list.remove(term.ordinal);
+            if (list.size == 0) {
+                trigrams.remove(gram);
+            }
+        }
+        termsByOrdinal.set(term.ordinal, null);
+        freeOrdinals.push(term.ordinal);
+    }
+    
+    private static final class Term {
+        
+        private final String text;
+        private final int ordinal;
+        private final Set<String> productIds = new HashSet<>(2);
+        
+        Term(String text, int ordinal) {
+            this.text = text;
+            this.ordinal = ordinal;
+        }
+    }
+    
+    /**
+     * Growable array of term ordinals, in no particular order.
+     */
+    private static final class TermList {
+        
+        private int[] terms = new int[4];
+        private int size;
+        
+        void add(int ordinal) {
+            if (size == terms.length) {
+                terms = Arrays.copyOf(terms, size * 2);
+            }
+            terms[size++] = ordinal;
+        }
+        
+        void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (terms[i] == ordinal) {
+                    terms[i] = terms[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.groceryapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.common.enums.ImportFormat;
+import com.groceryapp.common.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads product import rows one at a time from CSV (with a header row) or NDJSON.
+ *
+ * Field names are lower-cased. A row that cannot be parsed is returned with an
+ * error instead of fields so the import can report it and carry on.
+ */
+abstract class ProductImportReader {
+    
+    protected final BufferedReader reader;
+    private long rowNumber;
+    
+    private ProductImportReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 64 * 1024);
+    }
+    
+    static ProductImportReader of(Reader reader, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+        return format == ImportFormat.CSV ? new Csv(reader) : new Ndjson(reader, objectMapper);
+    }
+    
+    /**
+     * Returns the next data row, or null at the end of the input.
+     */
+    Row next() throws IOException {
+        Row row = readRow(rowNumber + 1);
+        if (row != null) {
+            rowNumber++;
+        }
+        return row;
+    }
+    
+    protected abstract Row readRow(long number) throws IOException;
+    
+    static final class Row {
+        
+        final long number;
+        final Map<String, String> fields;
+        final String error;
+        
+        Row(long number, Map<String, String> fields, String error) {
+            this.number = number;
+            this.fields = fields;
+            this.error = error;
+        }
+        
+        String get(String field) {
+            String value = fields.get(field);
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+    
+    private static final class Ndjson extends ProductImportReader {
+        
+        private final ObjectMapper objectMapper;
+        
+        Ndjson(Reader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+        
+        @Override
+        protected Row readRow(long number) throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            
+            JsonNode json;
+            try {
+                json = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new Row(number, Map.of(), "Malformed JSON: " + e.getOriginalMessage());
+            }
+            if (!json.isObject()) {
+                return new Row(number, Map.of(), "Row must be a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = json.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode value = field.getValue();
+                if (!value.isNull()) {
+                    fields.put(field.getKey().toLowerCase(Locale.ROOT), value.isValueNode() ? value.asText() : value.toString());
+                }
+            }
+            return new Row(number, fields, null);
+        }
+    }
+    
+    /**
+     * RFC 4180 style CSV: quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    private static final class Csv extends ProductImportReader {
+        
+        private final List<String> header;
+        
+        Csv(Reader reader) throws IOException {
+            super(reader);
+            List<String> columns = readRecord();
+            if (columns == null) {
+                throw new BadRequestException("CSV import is missing its header row");
+            }
+            header = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                header.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        
+        @Override
+        protected Row readRow(long number) throws IOException {
+            List<String> values;
+            do {
+                values = readRecord();
+            } while (values != null && values.size() == 1 && values.get(0).isBlank());
+            if (values == null) {
+                return null;
+            }
+            if (values.size() != header.size()) {
+                return new Row(number, Map.of(), "Expected " + header.size() + " columns but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return new Row(number, fields, null);
+        }
+        
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            value.append('"');
+                        } else {
+                            quoted = false;
+                            if (next >= 0) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        value.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+                c = reader.read();
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.groceryapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groceryapp.common.dto.BulkImportResultDto;
+import com.groceryapp.common.dto.ImportRowErrorDto;
+import com.groceryapp.common.enums.ImportFormat;
+import com.groceryapp.common.util.SlugUtil;
+import com.groceryapp.persistence.model.Product;
+import com.groceryapp.persistence.repository.ProductRepository;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class for bulk product imports.
+ *
+ * Rows are streamed from the input and handled in batches: each batch is
+ * validated in parallel and the valid rows are upserted with one unordered bulk
+ * write, matched on id when given and on the slug of the name otherwise. Within
+ * a batch the first row for a product is imported and later rows for the same id
+ * or slug are reported as duplicates; a later batch writes over an earlier one.
+ * The catalog snapshot is reloaded once at the end.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+    
+    private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final SequenceGenerator sequenceGenerator;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${catalog.import.max-errors:1000}")
+    private int maxErrors;
+    
+    /**
+     * Makes sure rows without an id are matched on an indexed slug, and that
+     * concurrent imports cannot insert the same slug twice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareSlugIndex() {
+        if (!productRepository.ensureSlugIndex()) {
+            log.warn("Stored products share slugs; imports cannot rely on a unique slug index until they are fixed");
+        }
+    }
+    
+    public BulkImportResultDto importProducts(Reader input, ImportFormat format) {
+        log.info("Importing products from {}", format);
+        long started = System.nanoTime();
+        BulkImportResultDto result = new BulkImportResultDto();
+        try {
+            ProductImportReader reader = ProductImportReader.of(input, format, objectMapper);
+            List<ProductImportReader.Row> batch = new ArrayList<>(batchSize);
+            ProductImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(batch, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, result);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read product import", e);
+        } finally {
+            if (result.getInserted() + result.getUpdated() > 0) {
+                catalogCache.refresh();
+            }
+        }
+        
+        log.info("Imported {} rows in {} ms: {} inserted, {} updated, {} failed", result.getTotalRows(),
+                (System.nanoTime() - started) / 1_000_000, result.getInserted(), result.getUpdated(), result.getFailed());
+        return result;
+    }
+    
+    private void importBatch(List<ProductImportReader.Row> batch, BulkImportResultDto result) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ParsedRow> parsed = batch.parallelStream()
+                .map(row -> parse(row, now))
+                .toList();
+        result.setTotalRows(result.getTotalRows() + batch.size());
+        
+        Map<String, ParsedRow> byKey = new LinkedHashMap<>();
+        for (ParsedRow row : parsed) {
+            if (row.error != null) {
+                addError(result, row.number, row.error);
+                continue;
+            }
+            Product product = row.product;
+            String key = product.getId() != null ? product.getId() : product.getSlug();
+            // The first row for a product wins; later ones are reported so the totals add up
+            ParsedRow first = byKey.putIfAbsent(key, row);
+            if (first != null) {
+                addError(result, row.number, "Duplicate of row " + first.number
+                        + (product.getId() != null ? " (same id)" : " (same slug)"));
+            }
+        }
+        if (byKey.isEmpty()) {
+            return;
+        }
+        
+        List<ParsedRow> valid = new ArrayList<>(byKey.values());
+        long changeSeq = sequenceGenerator.nextBlock(SequenceGenerator.PRODUCT_CHANGES, valid.size());
+        // Stamped after the sequence is taken; the change feed relies on that order
+        LocalDateTime updatedAt = LocalDateTime.now();
+        for (ParsedRow row : valid) {
+            row.product.setChangeSeq(changeSeq++);
+            row.product.setUpdatedAt(updatedAt);
+        }
+        try {
+            Set<Product> withActive = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (ParsedRow row : valid) {
+                if (row.activeGiven) {
+                    withActive.add(row.product);
+                }
+            }
+            count(productRepository.bulkUpsert(valid.stream().map(row -> row.product).toList(),
+                    withActive::contains), result);
+        } catch (BulkOperationException e) {
+            count(e.getResult(), result);
+            for (BulkWriteError error : e.getErrors()) {
+                addError(result, valid.get(error.getIndex()).number, error.getMessage());
+            }
+        }
+    }
+    
+    private static void count(BulkWriteResult writeResult, BulkImportResultDto result) {
+        result.setInserted(result.getInserted() + writeResult.getUpserts().size());
+        result.setUpdated(result.getUpdated() + writeResult.getMatchedCount());
+    }
+    
+    private void addError(BulkImportResultDto result, long row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ImportRowErrorDto(row, message));
+        }
+    }
+    
+    private static ParsedRow parse(ProductImportReader.Row row, LocalDateTime now) {
+        if (row.error != null) {
+            return new ParsedRow(row.number, null, false, row.error);
+        }
+        List<String> errors = new ArrayList<>();
+        Product product = new Product();
+        
+        String id = row.get("id");
+        if (id != null && !ObjectId.isValid(id)) {
+            errors.add("Invalid id: " + id);
+        }
+        product.setId(id);
+        
+        product.setName(row.get("name"));
+        product.setSlug(SlugUtil.toSlug(product.getName()));
+        if (product.getSlug() == null) {
+            errors.add("Product name is required");
+        }
+        
+        product.setCategory(row.get("category"));
+        if (product.getCategory() == null) {
+            errors.add("Category is required");
+        }
+        
+        product.setPrice(parsePrice(row.get("price"), errors));
+        
+        String stock = row.get("stockquantity") != null ? row.get("stockquantity") : row.get("quantity");
+        product.setStockQuantity(parseStock(stock, errors));
+        
+        String active = row.get("active");
+        if (active != null && !active.equalsIgnoreCase("true") && !active.equalsIgnoreCase("false")) {
+            errors.add("Invalid active flag: " + active);
+        }
+        // Without the column, existing products keep their flag and new ones are active
+        product.setActive(active == null || Boolean.parseBoolean(active));
+        
+        product.setDescription(row.get("description"));
+        product.setImageUrl(row.get("imageurl"));
+        product.setBrand(row.get("brand"));
+        product.setCreatedAt(now);
+        product.setUpdatedAt(now);
+        
+        return errors.isEmpty()
+                ? new ParsedRow(row.number, product, active != null, null)
+                : new ParsedRow(row.number, null, false, String.join("; ", errors));
+    }
+    
+    private static BigDecimal parsePrice(String value, List<String> errors) {
+        if (value == null) {
+            errors.add("Price is required");
+            return null;
+        }
+        try {
+            BigDecimal price = new BigDecimal(value);
+            if (price.signum() <= 0) {
+                errors.add("Price must be positive");
+            }
+            return price;
+        } catch (NumberFormatException e) {
+            errors.add("Invalid price: " + value);
+            return null;
+        }
+    }
+    
+    private static Integer parseStock(String value, List<String> errors) {
+        if (value == null) {
+            errors.add("Quantity is required");
+            return null;
+        }
+        try {
+            int stock = Integer.parseInt(value);
+            if (stock < 0) {
+                errors.add("Quantity must not be negative");
+            }
+            return stock;
+        } catch (NumberFormatException e) {
+            errors.add("Invalid quantity: " + value);
+            return null;
+        }
+    }
+    
+    private static final class ParsedRow {
+        
+        final long number;
+        final Product product;
+        // Whether the row had an active column
+        final boolean activeGiven;
+        final String error;
+        
+        ParsedRow(long number, Product product, boolean activeGiven, String error) {
+            this.number = number;
+            this.product = product;
+            this.activeGiven = activeGiven;
+            this.error = error;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.exception.ResourceNotFoundException;
+import com.groceryapp.persistence.model.Product;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Memoizes product lookups for the duration of one request, so each product is
+ * fetched at most once however often it is referenced. Created through
+ * {@link ProductPriceCache}; not thread-safe.
+ */
+public final class ProductLookup {
+    
+    private final Function<Collection<String>, Map<String, Product>> loader;
+    private final Map<String, Optional<Product>> products = new HashMap<>();
+    
+    ProductLookup(Function<Collection<String>, Map<String, Product>> loader) {
+        this.loader = loader;
+    }
+    
+    /**
+     * Loads all given products that have not been looked up yet in one batch.
+     */
+    public ProductLookup prefetch(Collection<String> productIds) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String productId : productIds) {
+            if (!products.containsKey(productId)) {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Product> loaded = loader.apply(missing);
+            for (String productId : missing) {
+                products.put(productId, Optional.ofNullable(loaded.get(productId)));
+            }
+        }
+        return this;
+    }
+    
+    public Optional<Product> find(String productId) {
+        prefetch(List.of(productId));
+        return products.get(productId);
+    }
+    
+    public Product require(String productId) {
+        return find(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Product;
+import com.groceryapp.persistence.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of products for pricing and stock checks in carts and orders.
+ *
+ * Entries live for {@code catalog.price-cache.ttl-ms} and the cache holds at most
+ * {@code catalog.price-cache.max-size} products. Product writes made on this node
+ * go through the catalog cache, and the resulting catalog events refresh the
+ * entries right away, so the TTL only bounds staleness from writes on other nodes.
+ * Inactive products are cached too, as the callers decide how to treat them.
+ *
+ * Cached products are shared and must not be modified.
+ */
+@Slf4j
+@Component
+public class ProductPriceCache {
+    
+    private final ProductRepository productRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    public ProductPriceCache(ProductRepository productRepository,
+                             @Value("${catalog.price-cache.ttl-ms:2000}") long ttlMs,
+                             @Value("${catalog.price-cache.max-size:10000}") int maxSize) {
+        this.productRepository = productRepository;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.maxSize = maxSize;
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isRebuilt()) {
+            entries.clear();
+            return;
+        }
+        event.getChangedProducts().forEach(this::put);
+    }
+    
+    public Optional<Product> get(String productId) {
+        return Optional.ofNullable(getAll(List.of(productId)).get(productId));
+    }
+    
+    /**
+     * Products by id; ids that are not cached are loaded with one findAllById, and
+     * unknown ids are left out.
+     */
+    public Map<String, Product> getAll(Collection<String> productIds) {
+        Map<String, Product> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        for (String productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.expiresAt - now > 0) {
+                found.put(productId, entry.product);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            load(missing).forEach(product -> found.put(product.getId(), product));
+        }
+        return found;
+    }
+    
+    /**
+     * Products by id, always read from MongoDB in one findAllById; the results
+     * refresh the cache.
+     */
+    public Map<String, Product> getAllFresh(Collection<String> productIds) {
+        Map<String, Product> found = new HashMap<>();
+        load(productIds).forEach(product -> found.put(product.getId(), product));
+        return found;
+    }
+    
+    /**
+     * A memo for one request or operation, served from this cache.
+     */
+    public ProductLookup lookup() {
+        return new ProductLookup(this::getAll);
+    }
+    
+    /**
+     * A memo for one request or operation that reads MongoDB once per product,
+     * for checks that must not act on a stale stock level.
+     */
+    public ProductLookup freshLookup() {
+        return new ProductLookup(this::getAllFresh);
+    }
+    
+    private List<Product> load(Collection<String> productIds) {
+        List<Product> loaded = new ArrayList<>(productIds.size());
+        productRepository.findAllById(productIds).forEach(product -> {
+            put(product);
+            loaded.add(product);
+        });
+        return loaded;
+    }
+    
+    private void put(Product product) {
+        if (entries.size() >= maxSize && !entries.containsKey(product.getId())) {
+            evict();
+        }
+        entries.put(product.getId(), new Entry(product, System.nanoTime() + ttlNanos));
+    }
+    
+    /**
+     * Drops expired entries, and if that is not enough, an arbitrary tenth of the
+     * rest. Cheap, and a miss only costs one more read.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+        int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> ids = entries.keySet().iterator();
+        while (excess-- > 0 && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+        }
+        log.debug("Product price cache evicted down to {} entries", entries.size());
+    }
+    
+    private record Entry(Product product, long expiresAt) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,363 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.enums.SearchOperator;
+import com.groceryapp.persistence.model.Product;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, description, category and brand.
+ *
+ * Every indexed product gets a dense int ordinal; each term maps to a sorted
+ * primitive int array of ordinals. Ordinals are only ever appended, so an update
+ * re-indexes the product under a fresh ordinal and tombstones the old one in the
+ * live bitmap. Tombstones are compacted away whenever the catalog is fully
+ * reloaded or they outnumber the live documents.
+ *
+ * Query terms are matched as prefixes of indexed terms and combined with AND or OR.
+ *
+ * Category and price are also kept as per-ordinal columns so facet counts for a
+ * result set are computed in a single pass over its bitmap.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+    
+    private static final int MIN_COMPACTION_SIZE = 1024;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<String, Integer> ordinalById = new HashMap<>();
+    private final List<String> idByOrdinal = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    
+    // Facet columns indexed by ordinal; prices in cents, -1 when unknown
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Integer> categoryOrdinals = new HashMap<>();
+    private int[] categoryByDoc = new int[1024];
+    private long[] priceCentsByDoc = new long[1024];
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isRebuilt() || needsCompaction()) {
+                rebuild(event.getSnapshot().getProducts());
+                return;
+            }
+            for (Product product : event.getChangedProducts()) {
+                removeDocument(product.getId());
+                if (product.isActive()) {
+                    addDocument(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the ids of active products matching the query, oldest indexed first.
+     */
+    public List<String> search(String query, SearchOperator operator) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            BitSet matches = evaluate(terms, operator);
+            List<String> ids = new ArrayList<>(matches.cardinality());
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                ids.add(idByOrdinal.get(doc));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Counts categories and price buckets over the products matching the query
+     * (every active product when the query is blank) in one pass, and counts the
+     * products that also pass the category and price filters. Of those, only the
+     * first limit ids after afterId in id order are collected, so the result
+     * stays small however many products match.
+     *
+     * @param bucketBoundsCents ascending bucket boundaries; bucket i covers
+     *                          [bounds[i - 1], bounds[i]), the last bucket is open-ended
+     * @param minCents          inclusive lower price filter, or null
+     * @param maxCents          inclusive upper price filter, or null
+     * @param afterId           id to continue after, or null from the start
+     */
+    public FacetCounts facet(String query, SearchOperator operator, String category,
+                             Long minCents, Long maxCents, long[] bucketBoundsCents,
+                             String afterId, int limit) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        
+        lock.readLock().lock();
+        try {
+            BitSet matches = terms.isEmpty() ? (BitSet) live.clone() : evaluate(terms, operator);
+            int categoryFilter = category == null ? -1 : categoryOrdinals.getOrDefault(category, -2);
+            
+            long[] categoryCounts = new long[categories.size()];
+            long[] bucketCounts = new long[bucketBoundsCents.length + 1];
+            long total = 0;
+            // Largest of the smallest ids seen so far on top
+            PriorityQueue<String> page = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                int categoryOrdinal = categoryByDoc[doc];
+                long price = priceCentsByDoc[doc];
+                boolean categoryPass = categoryFilter == -1 || categoryOrdinal == categoryFilter;
+                boolean pricePass = (minCents == null || (price >= 0 && price >= minCents))
+                        && (maxCents == null || (price >= 0 && price <= maxCents));
+                
+                if (pricePass && categoryOrdinal >= 0) {
+                    categoryCounts[categoryOrdinal]++;
+                }
+                if (categoryPass && price >= 0) {
+                    bucketCounts[bucketOf(price, bucketBoundsCents)]++;
+                }
+                if (categoryPass && pricePass) {
+                    total++;
+                    String id = idByOrdinal.get(doc);
+                    if ((afterId == null || id.compareTo(afterId) > 0)
+                            && (page.size() < limit || id.compareTo(page.peek()) < 0)) {
+                        page.offer(id);
+                        if (page.size() > limit) {
+                            page.poll();
+                        }
+                    }
+                }
+            }
+            
+            Map<String, Long> countsByCategory = new TreeMap<>();
+            for (int i = 0; i < categoryCounts.length; i++) {
+                if (categoryCounts[i] > 0) {
+                    countsByCategory.put(categories.get(i), categoryCounts[i]);
+                }
+            }
+            List<String> ids = new ArrayList<>(page);
+            Collections.sort(ids);
+            return new FacetCounts(ids, total, countsByCategory, bucketCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static int bucketOf(long priceCents, long[] boundsCents) {
+        int position = Arrays.binarySearch(boundsCents, priceCents);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+    
+    private BitSet evaluate(Collection<String> terms, SearchOperator operator) {
+        List<PostingList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            lists.add(lookup(term));
+        }
+        
+        BitSet result = new BitSet();
+        if (operator == SearchOperator.OR) {
+            for (PostingList list : lists) {
+                list.addTo(result);
+            }
+        } else {
+            // Intersect smallest lists first so the candidate set shrinks quickly
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            PostingList candidates = lists.get(0);
+            for (int i = 1; i < lists.size() && candidates.size() > 0; i++) {
+                candidates = candidates.intersect(lists.get(i));
+            }
+            candidates.addTo(result);
+        }
+        result.and(live);
+        return result;
+    }
+    
+    /**
+     * Union of the postings of every indexed term starting with the given prefix.
+     */
+    private PostingList lookup(String prefix) {
+        Collection<PostingList> expansions = postings.subMap(prefix, prefix + Character.MAX_VALUE).values();
+        PostingList single = null;
+        BitSet union = null;
+        for (PostingList list : expansions) {
+            if (single == null && union == null) {
+                single = list;
+                continue;
+            }
+            if (union == null) {
+                union = new BitSet();
+                single.addTo(union);
+            }
+            list.addTo(union);
+        }
+        if (union != null) {
+            return PostingList.of(union);
+        }
+        return single != null ? single : PostingList.EMPTY;
+    }
+    
+    private boolean needsCompaction() {
+        int dead = idByOrdinal.size() - ordinalById.size();
+        return idByOrdinal.size() >= MIN_COMPACTION_SIZE && dead > ordinalById.size();
+    }
+    
+    private void rebuild(List<Product> products) {
+        postings.clear();
+        ordinalById.clear();
+        idByOrdinal.clear();
+        live.clear();
+        categories.clear();
+        categoryOrdinals.clear();
+        for (Product product : products) {
+            addDocument(product);
+        }
+        log.info("Product search index rebuilt with {} documents and {} terms", ordinalById.size(), postings.size());
+    }
+    
+    private void addDocument(Product product) {
+        int ordinal = idByOrdinal.size();
+        idByOrdinal.add(product.getId());
+        ordinalById.put(product.getId(), ordinal);
+        live.set(ordinal);
+        setColumns(ordinal, product);
+        
+        Set<String> terms = new LinkedHashSet<>();
+        terms.addAll(SearchTokenizer.tokenize(product.getName()));
+        terms.addAll(SearchTokenizer.tokenize(product.getDescription()));
+        terms.addAll(SearchTokenizer.tokenize(product.getCategory()));
+        terms.addAll(SearchTokenizer.tokenize(product.getBrand()));
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new PostingList()).add(ordinal);
+        }
+    }
+    
+    private void setColumns(int ordinal, Product product) {
+        if (ordinal == categoryByDoc.length) {
+            categoryByDoc = Arrays.copyOf(categoryByDoc, ordinal * 2);
+            priceCentsByDoc = Arrays.copyOf(priceCentsByDoc, ordinal * 2);
+        }
+        String category = product.getCategory();
+        categoryByDoc[ordinal] = category == null ? -1 : categoryOrdinals.computeIfAbsent(category, key -> {
+            categories.add(key);
+            return categories.size() - 1;
+        });
+        priceCentsByDoc[ordinal] = product.getPrice() == null ? -1 : toCents(product.getPrice());
+    }
+    
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
+    private void removeDocument(String productId) {
+        Integer ordinal = ordinalById.remove(productId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+            idByOrdinal.set(ordinal, null);
+        }
+    }
+    
+    /**
+     * Result of {@link #facet}: one page of matching product ids in id order, the
+     * number of matching products, non-zero category counts and one count per price
+     * bucket.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class FacetCounts {
+        
+        private final List<String> productIds;
+        
+        private final long total;
+        
+        private final Map<String, Long> categoryCounts;
+        
+        private final long[] priceBucketCounts;
+    }
+    
+    /**
+     * Growable, ascending array of document ordinals.
+     */
+    private static final class PostingList {
+        
+        static final PostingList EMPTY = new PostingList(new int[0], 0);
+        
+        private int[] docs;
+        private int size;
+        
+        PostingList() {
+            this(new int[4], 0);
+        }
+        
+        private PostingList(int[] docs, int size) {
+            this.docs = docs;
+            this.size = size;
+        }
+        
+        static PostingList of(BitSet bits) {
+            int[] docs = bits.stream().toArray();
+            return new PostingList(docs, docs.length);
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+        
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(docs[i]);
+            }
+        }
+        
+        PostingList intersect(PostingList other) {
+            int[] out = new int[Math.min(size, other.size)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                int a = docs[i];
+                int b = other.docs[j];
+                if (a == b) {
+                    out[count++] = a;
+                    i++;
+                    j++;
+                } else if (a < b) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return new PostingList(out, count);
+        }
+    }
+}
\ No newline at end of file
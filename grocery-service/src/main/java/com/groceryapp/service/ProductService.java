@@ -1,17 +1,43 @@
 package com.groceryapp.service;
 
+import com.groceryapp.common.constants.AppConstants;
+import com.groceryapp.common.dto.CursorPageDto;
+import com.groceryapp.common.dto.PriceBucketDto;
+import com.groceryapp.common.dto.ProductFacetsDto;
+import com.groceryapp.common.dto.ProductChangesDto;
 import com.groceryapp.common.dto.ProductDto;
+import com.groceryapp.common.dto.ProductSummaryDto;
 import com.groceryapp.common.dto.ExtendedProductDto;
+import com.groceryapp.common.enums.SearchOperator;
+import com.groceryapp.common.exception.BadRequestException;
+import com.groceryapp.common.exception.ConflictException;
+import com.groceryapp.common.util.CursorUtil;
+import com.groceryapp.common.util.SlugUtil;
 import com.groceryapp.persistence.model.Product;
 import com.groceryapp.persistence.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for Product operations
@@ -22,28 +48,190 @@ import java.util.stream.Collectors;
 public class ProductService {
     
     private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFuzzyIndex fuzzyIndex;
+    private final InventoryIndex inventoryIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final SequenceGenerator sequenceGenerator;
+    private final CategoryService categoryService;
+    
+    @Value("${catalog.facets.price-buckets:1,2,5,10,20,50}")
+    private BigDecimal[] priceBucketBounds;
+    
+    @Value("${catalog.changes.settle-ms:60000}")
+    private long changesSettleMillis;
     
     public List<ExtendedProductDto> getAllProducts() {
         log.info("Fetching all products");
-        return productRepository.findByActiveTrue()
+        return catalogCache.current().getProducts()
                 .stream()
                 .map(this::convertToExtendedDto)
                 .collect(Collectors.toList());
     }
     
+    public CursorPageDto<ExtendedProductDto> getProductsPage(String cursor, Integer limit) {
+        log.info("Fetching product page after cursor: {}", cursor);
+        int pageSize = CursorPagination.pageSize(limit);
+        String afterId = CursorPagination.afterId(cursor);
+        List<Product> rows = catalogCache.current().findAfterId(afterId, pageSize + 1);
+        return CursorPagination.toPage(rows, pageSize, Product::getId, this::convertToExtendedDto);
+    }
+    
+    /**
+     * Product card fields for every active product, or those of one category subtree.
+     */
+    public List<ProductSummaryDto> getProductSummaries(String category) {
+        log.info("Fetching product summaries for category: {}", category);
+        CatalogSnapshot snapshot = catalogCache.current();
+        List<Product> products = category != null
+                ? snapshot.findByCategories(categoryService.getSubtreeCategoryNames(category))
+                : snapshot.getProducts();
+        return products.stream()
+                .map(this::convertToSummaryDto)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Streams every active product from a MongoDB cursor to the sink, one at a time.
+     */
+    public void exportProducts(Consumer<ExtendedProductDto> sink) {
+        log.info("Exporting all active products");
+        try (Stream<Product> products = productRepository.streamByActiveTrue()) {
+            products.map(this::convertToExtendedDto).forEach(sink);
+        }
+    }
+    
+    /**
+     * Entity tag for catalog-wide reads, derived from the data so that every node
+     * serving the same catalog agrees and restarts keep it: the highest changeSeq
+     * and count of the active products, and the category tree's fingerprint, since
+     * category reads include subcategories.
+     */
+    public String getCatalogETag() {
+        CatalogSnapshot snapshot = catalogCache.current();
+        return Long.toString(snapshot.getMaxChangeSeq(), 36) + "-" + Long.toString(snapshot.size(), 36)
+                + "-" + categoryService.currentTree().getFingerprint();
+    }
+    
+    /**
+     * Entity tag for a single active product, derived from its id and last update.
+     */
+    public Optional<String> getProductETag(String id) {
+        return catalogCache.current().findById(id).map(this::productETag);
+    }
+    
+    public Optional<String> getProductETagBySlug(String slug) {
+        return catalogCache.current().findBySlug(slug).map(this::productETag);
+    }
+    
+    private String productETag(Product product) {
+        if (product.getUpdatedAt() == null) {
+            return getCatalogETag();
+        }
+        long updatedAt = product.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        return product.getId() + "-" + Long.toString(updatedAt, 36);
+    }
+    
+    /**
+     * Products created, updated or deactivated after the given token, in change order.
+     * A null token starts from the beginning of the feed.
+     *
+     * The token is the highest changeSeq served. A writer takes its changeSeq
+     * before its write lands, so a higher sequence can become visible before a
+     * lower one. The feed therefore stops at the first change stamped less than
+     * {@code catalog.changes.settle-ms} ago, and recent changes show up on a later
+     * call. This is a heuristic: a write landing more than the window after it took
+     * its sequence, or stamped by a node whose clock runs behind this one by about
+     * the window, can fall below a token already handed out and is never served.
+     * Keep the window well above the slowest product write plus the clock skew
+     * between nodes, and resync from a full export if a consumer must never miss a
+     * change.
+     */
+    public ProductChangesDto getProductChanges(String since, Integer limit) {
+        log.info("Fetching product changes since: {}", since);
+        long after = decodeChangeToken(since);
+        int pageSize = CursorPagination.pageSize(limit, AppConstants.DEFAULT_CHANGES_PAGE_SIZE, AppConstants.MAX_CHANGES_PAGE_SIZE);
+        List<Product> rows = productRepository.findByChangeSeqGreaterThan(after,
+                PageRequest.of(0, pageSize + 1, Sort.by(Sort.Direction.ASC, "changeSeq")));
+        
+        LocalDateTime settledBefore = LocalDateTime.now().minusNanos(changesSettleMillis * 1_000_000);
+        int settled = 0;
+        while (settled < Math.min(rows.size(), pageSize) && isSettled(rows.get(settled), settledBefore)) {
+            settled++;
+        }
+        boolean hasMore = settled == pageSize && rows.size() > pageSize;
+        List<Product> changes = rows.subList(0, settled);
+        long last = changes.isEmpty() ? after : changes.get(changes.size() - 1).getChangeSeq();
+        List<ExtendedProductDto> products = changes.stream()
+                .map(this::convertToExtendedDto)
+                .collect(Collectors.toList());
+        return new ProductChangesDto(products, CursorUtil.encode(Long.toString(last)), hasMore);
+    }
+    
+    private static boolean isSettled(Product product, LocalDateTime settledBefore) {
+        return product.getUpdatedAt() == null || product.getUpdatedAt().isBefore(settledBefore);
+    }
+    
+    private static long decodeChangeToken(String token) {
+        String value = CursorUtil.decode(token);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid change token: " + token);
+        }
+    }
+    
+    /**
+     * Gives products written before the change feed existed, or by the data seeders,
+     * a place in the feed, after making sure the feed index exists. Runs before the
+     * catalog snapshot is first loaded.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void assignMissingChangeSequences() {
+        productRepository.ensureChangeSeqIndex();
+        List<Product> missing = productRepository.findByChangeSeqIsNull();
+        if (missing.isEmpty()) {
+            return;
+        }
+        long next = sequenceGenerator.nextBlock(SequenceGenerator.PRODUCT_CHANGES, missing.size());
+        Map<String, Long> changeSeqById = new LinkedHashMap<>();
+        for (Product product : missing) {
+            changeSeqById.put(product.getId(), next++);
+        }
+        int updated = productRepository.assignMissingChangeSeq(changeSeqById);
+        log.info("Assigned change sequence numbers to {} products", updated);
+    }
+    
     public Optional<ExtendedProductDto> getProductById(String id) {
         log.info("Fetching product with id: {}", id);
-        return productRepository.findByIdAndActiveTrue(id)
+        return catalogCache.current().findById(id)
+                .map(this::convertToExtendedDto);
+    }
+    
+    public Optional<ExtendedProductDto> getProductBySlug(String slug) {
+        log.info("Fetching product with slug: {}", slug);
+        return catalogCache.current().findBySlug(slug)
                 .map(this::convertToExtendedDto);
     }
     
     public ExtendedProductDto createProduct(ExtendedProductDto productDto) {
         log.info("Creating new product: {}", productDto.getName());
         Product product = convertToEntity(productDto);
+        product.setActive(true);
+        if (product.getSlug() == null) {
+            product.setSlug(SlugUtil.toSlug(product.getName()));
+        }
+        // Stamped after the sequence is taken; the change feed relies on that order
+        product.setChangeSeq(sequenceGenerator.next(SequenceGenerator.PRODUCT_CHANGES));
         product.setCreatedAt(LocalDateTime.now());
         product.setUpdatedAt(LocalDateTime.now());
-        product.setActive(true);
         Product savedProduct = productRepository.save(product);
+        catalogCache.upsert(savedProduct);
         return convertToExtendedDto(savedProduct);
     }
     
@@ -51,60 +239,154 @@ public class ProductService {
         log.info("Updating product with id: {}", id);
         return productRepository.findById(id)
                 .map(existingProduct -> {
-                    // Update all fields from DTO
-                    existingProduct.setName(productDto.getName());
-                    existingProduct.setDescription(productDto.getDescription());
-                    existingProduct.setPrice(productDto.getPrice());
-                    existingProduct.setCategory(productDto.getCategory());
-                    existingProduct.setImageUrl(productDto.getImageUrl());
+                    // Only the edited fields are written; reservations and other fields stay as stored
+                    Map<String, Object> fields = new LinkedHashMap<>();
+                    fields.put("name", productDto.getName());
+                    fields.put("description", productDto.getDescription());
+                    fields.put("price", productDto.getPrice());
+                    fields.put("category", productDto.getCategory());
+                    fields.put("imageUrl", productDto.getImageUrl());
                     
-                    // Handle stock quantity properly
+                    // Stock moves by the difference from the stock read here, so units taken by
+                    // checkouts in the meantime are not written back
                     Integer stockQty = productDto.getStockQuantity() != null ? 
                                       productDto.getStockQuantity() : productDto.getQuantity();
+                    int current = existingProduct.getStockQuantity() != null ? existingProduct.getStockQuantity() : 0;
+                    int stockDelta = stockQty != null ? stockQty - current : 0;
                     log.debug("Updating product {} stock quantity from {} to {}", 
                              existingProduct.getName(), existingProduct.getStockQuantity(), stockQty);
-                    existingProduct.setStockQuantity(stockQty);
-                    // Note: Product entity only has stockQuantity field
                     
-                    existingProduct.setUpdatedAt(LocalDateTime.now());
-                    Product savedProduct = productRepository.save(existingProduct);
+                    long changeSeq = sequenceGenerator.next(SequenceGenerator.PRODUCT_CHANGES);
+                    Product savedProduct = productRepository.updateFields(id, fields, stockDelta, changeSeq,
+                                    LocalDateTime.now())
+                            .orElseThrow(() -> new ConflictException(
+                                    "Stock of product " + id + " was taken during the update, please retry"));
+                    catalogCache.upsert(savedProduct);
                     return convertToExtendedDto(savedProduct);
                 });
     }
     
     public boolean deleteProduct(String id) {
         log.info("Deleting product with id: {}", id);
-        return productRepository.findById(id)
+        if (!productRepository.existsById(id)) {
+            return false;
+        }
+        // Soft delete - mark as inactive
+        long changeSeq = sequenceGenerator.next(SequenceGenerator.PRODUCT_CHANGES);
+        return productRepository.updateFields(id, Map.of("active", false), 0, changeSeq, LocalDateTime.now())
                 .map(product -> {
-                    // Soft delete - mark as inactive
-                    product.setActive(false);
-                    product.setUpdatedAt(LocalDateTime.now());
-                    productRepository.save(product);
+                    catalogCache.upsert(product);
                     return true;
                 })
                 .orElse(false);
     }
     
+    /**
+     * Products in the given category (id, slug or name) or any of its descendants.
+     */
     public List<ExtendedProductDto> getProductsByCategory(String category) {
         log.info("Fetching products by category: {}", category);
-        return productRepository.findByCategoryAndActiveTrue(category)
+        return catalogCache.current().findByCategories(categoryService.getSubtreeCategoryNames(category))
                 .stream()
                 .map(this::convertToExtendedDto)
                 .collect(Collectors.toList());
     }
     
     public List<ExtendedProductDto> searchProducts(String searchTerm) {
-        log.info("Searching products with term: {}", searchTerm);
-        return productRepository.searchProducts(searchTerm)
+        return searchProducts(searchTerm, SearchOperator.AND);
+    }
+    
+    public List<ExtendedProductDto> searchProducts(String searchTerm, SearchOperator operator) {
+        return searchProducts(searchTerm, operator, false);
+    }
+    
+    /**
+     * Searches the catalog; in fuzzy mode names and brands are matched with a small
+     * edit budget per term and the closest matches come first.
+     */
+    public List<ExtendedProductDto> searchProducts(String searchTerm, SearchOperator operator, boolean fuzzy) {
+        log.info("Searching products with term: {} ({}, fuzzy: {})", searchTerm, operator, fuzzy);
+        CatalogSnapshot snapshot = catalogCache.current();
+        List<String> ids = fuzzy ? fuzzyIndex.search(searchTerm, operator) : searchIndex.search(searchTerm, operator);
+        return ids
                 .stream()
+                .map(snapshot::findById)
+                .flatMap(Optional::stream)
                 .map(this::convertToExtendedDto)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Typeahead suggestions for the given prefix, most popular first.
+     */
+    public List<String> getSuggestions(String prefix, int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        log.debug("Fetching suggestions for prefix: {}", prefix);
+        return suggestIndex.suggest(prefix, limit);
+    }
+    
+    /**
+     * Category counts and price histogram over every match, with one page of the
+     * matching products as cards in id order.
+     */
+    public ProductFacetsDto getProductFacets(String searchTerm, SearchOperator operator, String category,
+                                             BigDecimal minPrice, BigDecimal maxPrice,
+                                             String cursor, Integer limit) {
+        log.info("Fetching product facets for term: {}, category: {}, price: {}-{}", searchTerm, category, minPrice, maxPrice);
+        int pageSize = CursorPagination.pageSize(limit);
+        String afterId = CursorPagination.afterId(cursor);
+        CatalogSnapshot snapshot = catalogCache.current();
+        BigDecimal[] bounds = priceBucketBounds.clone();
+        Arrays.sort(bounds);
+        long[] boundsCents = Arrays.stream(bounds).mapToLong(ProductSearchIndex::toCents).toArray();
+        
+        ProductSearchIndex.FacetCounts counts = searchIndex.facet(searchTerm, operator, category,
+                minPrice != null ? ProductSearchIndex.toCents(minPrice) : null,
+                maxPrice != null ? ProductSearchIndex.toCents(maxPrice) : null,
+                boundsCents, afterId, pageSize + 1);
+        
+        List<Product> rows = counts.getProductIds().stream()
+                .map(snapshot::findById)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+        CursorPageDto<ProductSummaryDto> products = CursorPagination.toPage(rows, pageSize, Product::getId,
+                this::convertToSummaryDto);
+        
+        List<PriceBucketDto> histogram = new ArrayList<>();
+        long[] bucketCounts = counts.getPriceBucketCounts();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            BigDecimal min = i == 0 ? BigDecimal.ZERO : bounds[i - 1];
+            BigDecimal max = i < bounds.length ? bounds[i] : null;
+            histogram.add(new PriceBucketDto(min, max, bucketCounts[i]));
+        }
+        
+        return new ProductFacetsDto(products.getItems(), counts.getTotal(), products.getNextCursor(),
+                products.isHasMore(), counts.getCategoryCounts(), histogram);
+    }
+    
+    /**
+     * Active products with less than threshold units (the configured low-stock
+     * threshold when null), lowest stock first.
+     */
     public List<ExtendedProductDto> getLowStockProducts(Integer threshold) {
-        log.info("Fetching low stock products with threshold: {}", threshold);
-        return productRepository.findLowStockProducts(threshold)
+        int limit = threshold != null ? threshold : inventoryIndex.getLowStockThreshold();
+        log.info("Fetching low stock products with threshold: {}", limit);
+        return toExtendedDtos(inventoryIndex.findBelow(limit));
+    }
+    
+    public List<ExtendedProductDto> getOutOfStockProducts() {
+        log.info("Fetching out of stock products");
+        return toExtendedDtos(inventoryIndex.findOutOfStock());
+    }
+    
+    private List<ExtendedProductDto> toExtendedDtos(List<String> productIds) {
+        CatalogSnapshot snapshot = catalogCache.current();
+        return productIds
                 .stream()
+                .map(snapshot::findById)
+                .flatMap(Optional::stream)
                 .map(this::convertToExtendedDto)
                 .collect(Collectors.toList());
     }
@@ -134,6 +416,20 @@ public class ProductService {
         return dto;
     }
     
+    private ProductSummaryDto convertToSummaryDto(Product product) {
+        return new ProductSummaryDto(
+                product.getId(),
+                product.getName(),
+                product.getSlug(),
+                product.getCategory(),
+                product.getBrand(),
+                product.getPrice(),
+                product.getOriginalPrice(),
+                product.getImageUrl(),
+                product.getStockQuantity()
+        );
+    }
+    
     private ProductDto convertToBasicDto(ExtendedProductDto extendedDto) {
         return new ProductDto(
                 extendedDto.getId(),
@@ -0,0 +1,312 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.model.Order;
+import com.groceryapp.persistence.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie over product names, brands and categories used for typeahead.
+ *
+ * Each suggestion is reachable from its full text and from every word inside it,
+ * so "tea" finds "Green Tea". Every trie node caches the top-k suggestions of its
+ * subtree, making a lookup a walk down the prefix plus a copy of that list.
+ * Popularity is the number of active products carrying the text plus the units
+ * ordered under that product name. When a suggestion changes, only the nodes on
+ * its key paths are recomputed, bottom-up, from their own entries and their
+ * children's cached lists.
+ */
+@Slf4j
+@Component
+public class ProductSuggestIndex {
+    
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingLong(Suggestion::weight).reversed()
+            .thenComparing(suggestion -> suggestion.text);
+    
+    private final int topK;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private Node root = new Node();
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<String, List<String>> keysByProductId = new HashMap<>();
+    
+    public ProductSuggestIndex(@Value("${catalog.suggest.top-k:10}") int topK) {
+        this.topK = topK;
+    }
+    
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isRebuilt()) {
+                rebuild(event.getSnapshot().getProducts());
+                return;
+            }
+            for (Product product : event.getChangedProducts()) {
+                removeProduct(product.getId());
+                if (product.isActive()) {
+                    addProduct(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Order.OrderItem item : event.getOrder().getItems()) {
+                Suggestion suggestion = suggestions.get(normalizeKey(item.getProductName()));
+                if (suggestion != null && item.getQuantity() != null) {
+                    suggestion.unitsSold += item.getQuantity();
+                    refresh(suggestion);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to limit suggestions for the prefix, most popular first.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalizeKey(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<String> result = new ArrayList<>(Math.min(limit, node.top.length));
+            for (int i = 0; i < node.top.length && result.size() < limit; i++) {
+                result.add(node.top[i].text);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void rebuild(List<Product> products) {
+        // Keep sales counts accumulated so far; product counts are recounted
+        Map<String, Long> unitsSold = new HashMap<>();
+        suggestions.forEach((key, suggestion) -> {
+            if (suggestion.unitsSold > 0) {
+                unitsSold.put(key, suggestion.unitsSold);
+            }
+        });
+        root = new Node();
+        suggestions.clear();
+        keysByProductId.clear();
+        for (Product product : products) {
+            addProduct(product);
+        }
+        unitsSold.forEach((key, units) -> {
+            Suggestion suggestion = suggestions.get(key);
+            if (suggestion != null) {
+                suggestion.unitsSold = units;
+                refresh(suggestion);
+            }
+        });
+        log.info("Product suggest index rebuilt with {} suggestions", suggestions.size());
+    }
+    
+    private void addProduct(Product product) {
+        Set<String> texts = new LinkedHashSet<>();
+        for (String text : new String[]{product.getName(), product.getBrand(), product.getCategory()}) {
+            if (text != null && !normalizeKey(text).isEmpty()) {
+                texts.add(text.trim());
+            }
+        }
+        List<String> keys = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            String key = normalizeKey(text);
+            Suggestion suggestion = suggestions.get(key);
+            if (suggestion == null) {
+                suggestion = new Suggestion(text, key);
+                suggestions.put(key, suggestion);
+                for (String path : paths(key)) {
+                    insertPath(path, suggestion);
+                }
+            }
+            suggestion.productCount++;
+            keys.add(key);
+            refresh(suggestion);
+        }
+        keysByProductId.put(product.getId(), keys);
+    }
+    
+    private void removeProduct(String productId) {
+        List<String> keys = keysByProductId.remove(productId);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            Suggestion suggestion = suggestions.get(key);
+            suggestion.productCount--;
+            if (suggestion.productCount == 0) {
+                suggestions.remove(key);
+                for (String path : paths(key)) {
+                    removePath(path, suggestion);
+                }
+            } else {
+                refresh(suggestion);
+            }
+        }
+    }
+    
+    /**
+     * The full key plus every suffix starting at a word boundary.
+     */
+    private static List<String> paths(String key) {
+        List<String> paths = new ArrayList<>();
+        paths.add(key);
+        for (int i = 1; i < key.length(); i++) {
+            if (key.charAt(i - 1) == ' ') {
+                paths.add(key.substring(i));
+            }
+        }
+        return paths;
+    }
+    
+    private void insertPath(String path, Suggestion suggestion) {
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.getOrCreateChild(path.charAt(i));
+        }
+        node.entries.add(suggestion);
+    }
+    
+    private void removePath(String path, Suggestion suggestion) {
+        Node[] trail = trail(path);
+        if (trail == null) {
+            return;
+        }
+        trail[trail.length - 1].entries.remove(suggestion);
+        recompute(trail);
+    }
+    
+    private void refresh(Suggestion suggestion) {
+        for (String path : paths(suggestion.key)) {
+            Node[] trail = trail(path);
+            if (trail != null) {
+                recompute(trail);
+            }
+        }
+    }
+    
+    private Node[] trail(String path) {
+        Node[] trail = new Node[path.length() + 1];
+        trail[0] = root;
+        for (int i = 0; i < path.length(); i++) {
+            trail[i + 1] = trail[i].child(path.charAt(i));
+            if (trail[i + 1] == null) {
+                return null;
+            }
+        }
+        return trail;
+    }
+    
+    private void recompute(Node[] trail) {
+        for (int i = trail.length - 1; i >= 0; i--) {
+            Node node = trail[i];
+            List<Suggestion> candidates = new ArrayList<>(node.entries);
+            for (Node child : node.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            node.top = candidates.stream()
+                    .distinct()
+                    .sorted(RANKING)
+                    .limit(topK)
+                    .toArray(Suggestion[]::new);
+        }
+    }
+    
+    private static String normalizeKey(String text) {
+        return String.join(" ", SearchTokenizer.tokenize(text));
+    }
+    
+    private static final class Suggestion {
+        
+        private final String text;
+        private final String key;
+        private int productCount;
+        private long unitsSold;
+        
+        Suggestion(String text, String key) {
+            this.text = text;
+            this.key = key;
+        }
+        
+        long weight() {
+            return productCount + unitsSold;
+        }
+    }
+    
+    /**
+     * Trie node with children in a sorted char array, its own entries and the
+     * cached top-k of its subtree.
+     */
+    private static final class Node {
+        
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+        
+        private char[] labels = new char[0];
+        private Node[] children = NO_CHILDREN;
+        private final List<Suggestion> entries = new ArrayList<>(1);
+        private Suggestion[] top = NO_SUGGESTIONS;
+        
+        Node child(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            return position >= 0 ? children[position] : null;
+        }
+        
+        Node getOrCreateChild(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            if (position >= 0) {
+                return children[position];
+            }
+            int insertAt = -position - 1;
+            Node child = new Node();
+            
+            char[] newLabels = new char[labels.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            newLabels[insertAt] = label;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newChildren[insertAt] = child;
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.groceryapp.service;
+
+import com.groceryapp.persistence.repository.CounterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cluster-wide monotonic sequences backed by the counters collection.
+ *
+ * Every call is one atomic findAndModify, so values are unique across application
+ * nodes. Callers needing many values should take a block instead of calling
+ * {@link #next} in a loop.
+ */
+@Component
+@RequiredArgsConstructor
+public class SequenceGenerator {
+    
+    public static final String PRODUCT_CHANGES = "product_changes";
+    public static final String ORDER_NUMBERS = "order_numbers";
+    
+    private final CounterRepository counterRepository;
+    
+    public long next(String name) {
+        return counterRepository.increment(name, 1);
+    }
+    
+    /**
+     * Reserves size consecutive values and returns the first of them.
+     */
+    public long nextBlock(String name, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        return counterRepository.increment(name, size) - size + 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.enums.StockLevel;
+import com.groceryapp.persistence.model.Product;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by {@link InventoryIndex} when an active product moves to another
+ * {@link StockLevel}. Like catalog events it is published while the catalog write
+ * lock is held, so listeners must hand off any slow work.
+ */
+@Getter
+@RequiredArgsConstructor
+public class StockLevelChangedEvent {
+    
+    private final Product product;
+    
+    private final int previousQuantity;
+    
+    private final StockLevel previousLevel;
+    
+    private final StockLevel level;
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.groceryapp.service;
 
+import com.groceryapp.common.dto.CursorPageDto;
 import com.groceryapp.common.dto.UserDto;
 import com.groceryapp.common.exception.BadRequestException;
 import com.groceryapp.common.exception.ResourceNotFoundException;
@@ -7,6 +8,7 @@ import com.groceryapp.persistence.model.User;
 import com.groceryapp.persistence.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -35,6 +37,17 @@ public class UserService {
                 .collect(Collectors.toList());
     }
     
+    public CursorPageDto<UserDto> getUsersPage(String cursor, Integer limit) {
+        log.info("Fetching user page after cursor: {}", cursor);
+        int pageSize = CursorPagination.pageSize(limit);
+        String afterId = CursorPagination.afterId(cursor);
+        Pageable rows = CursorPagination.firstRows(pageSize);
+        List<User> users = afterId == null
+                ? userRepository.findAllBy(rows)
+                : userRepository.findByIdGreaterThan(afterId, rows);
+        return CursorPagination.toPage(users, pageSize, User::getId, this::convertToDto);
+    }
+    
     public UserDto getUserById(String id) {
         log.info("Fetching user with id: {}", id);
         User user = userRepository.findById(id)
@@ -0,0 +1,369 @@
+package com.groceryapp.service;
+
+import com.groceryapp.common.enums.CartDurability;
+import com.groceryapp.common.exception.ResourceNotFoundException;
+import com.groceryapp.persistence.model.Cart;
+import com.groceryapp.persistence.repository.CartRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Cart store that keeps recently used carts in memory and writes changes behind.
+ *
+ * Up to {@code cart.write-behind.max-carts} carts are cached in access order.
+ * A save replaces the cached cart and marks the customer dirty, so repeated
+ * changes to one cart between flushes coalesce into a single write. In BATCHED
+ * mode dirty carts are written with batched saveAll calls every
+ * {@code cart.write-behind.flush-interval-ms}, which is the most that can be
+ * lost on a crash; WRITE_THROUGH saves immediately and only saves the reads.
+ * Everything pending is flushed on shutdown.
+ *
+ * Every write for a customer, including its MongoDB I/O, runs under that
+ * customer's lock stripe, which orders saves, deletes and flushes per customer.
+ * The store-wide monitor only guards the in-memory maps and is never held during
+ * MongoDB I/O, so one slow write does not stall other customers.
+ *
+ * The cache is local to the node, so this store is only meant for single-node
+ * deployments or customers pinned to one node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore implements CartStore {
+    
+    private final CartRepository cartRepository;
+    private final CartDurability durability;
+    private final int batchSize;
+    
+    // Serializes writes and their I/O per customer; lock striping keeps this bounded
+    private final Object[] customerLocks = new Object[64];
+    
+    // Guarded by this
+    private final LinkedHashMap<String, Cart> carts;
+    private final Map<String, Cart> dirty = new LinkedHashMap<>();
+    private final Set<String> deleted = new LinkedHashSet<>();
+    
+    public WriteBehindCartStore(CartRepository cartRepository,
+                                @Value("${cart.write-behind.durability:BATCHED}") CartDurability durability,
+                                @Value("${cart.write-behind.max-carts:10000}") int maxCarts,
+                                @Value("${cart.write-behind.batch-size:500}") int batchSize) {
+        this.cartRepository = cartRepository;
+        this.durability = durability;
+        this.batchSize = batchSize;
+        for (int i = 0; i < customerLocks.length; i++) {
+            customerLocks[i] = new Object();
+        }
+        // Evicting a dirty cart is safe: reads check the dirty set before MongoDB
+        this.carts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cart> eldest) {
+                return size() > maxCarts;
+            }
+        };
+    }
+    
+    @Override
+    public Optional<Cart> find(String customerId) {
+        synchronized (this) {
+            Cart cached = cachedCart(customerId);
+            if (cached != null || deleted.contains(customerId)) {
+                return Optional.ofNullable(cached).map(WriteBehindCartStore::copy);
+            }
+        }
+        
+        Optional<Cart> loaded = cartRepository.findByCustomerId(customerId);
+        synchronized (this) {
+            // A save or delete may have happened while loading; it wins
+            Cart cached = cachedCart(customerId);
+            if (cached != null || deleted.contains(customerId)) {
+                return Optional.ofNullable(cached).map(WriteBehindCartStore::copy);
+            }
+            loaded.ifPresent(cart -> carts.put(customerId, cart));
+            return loaded.map(WriteBehindCartStore::copy);
+        }
+    }
+    
+    // Only reached through the item operations below
+    private Cart save(Cart cart) {
+        if (cart.getId() == null) {
+            cart.setId(new ObjectId().toHexString());
+        }
+        Cart stored = copy(cart);
+        String customerId = cart.getCustomerId();
+        synchronized (lockFor(customerId)) {
+            if (durability == CartDurability.WRITE_THROUGH) {
+                // A cart recreated after a clear must never meet its old document
+                boolean pendingDelete;
+                synchronized (this) {
+                    pendingDelete = deleted.contains(customerId);
+                }
+                if (pendingDelete) {
+                    deleteStored(customerId);
+                }
+                cartRepository.save(stored);
+                synchronized (this) {
+                    carts.put(customerId, stored);
+                }
+            } else {
+                synchronized (this) {
+                    carts.put(customerId, stored);
+                    dirty.put(customerId, stored);
+                }
+            }
+        }
+        return copy(stored);
+    }
+    
+    @Override
+    public void delete(String customerId) {
+        synchronized (lockFor(customerId)) {
+            synchronized (this) {
+                carts.remove(customerId);
+                dirty.remove(customerId);
+                deleted.add(customerId);
+            }
+            if (durability == CartDurability.WRITE_THROUGH) {
+                deleteStored(customerId);
+            }
+        }
+    }
+    
+    @Override
+    public Cart addItem(String customerId, Cart.CartItem item, int maxQuantity) {
+        synchronized (lockFor(customerId)) {
+            Cart cart = find(customerId).orElseGet(() -> CartMutations.newCart(customerId));
+            CartMutations.addItem(cart, item, maxQuantity);
+            return save(cart);
+        }
+    }
+    
+    @Override
+    public Cart setItemQuantity(String customerId, String productId, int quantity) {
+        synchronized (lockFor(customerId)) {
+            Cart cart = find(customerId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+            CartMutations.setItemQuantity(cart, productId, quantity);
+            return save(cart);
+        }
+    }
+    
+    @Override
+    public Cart removeItem(String customerId, String productId) {
+        synchronized (lockFor(customerId)) {
+            Cart cart = find(customerId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+            CartMutations.removeItem(cart, productId);
+            return save(cart);
+        }
+    }
+    
+    @Override
+    public Cart applyAll(String customerId, Consumer<Cart> changes) {
+        synchronized (lockFor(customerId)) {
+            Cart cart = find(customerId).orElseGet(() -> CartMutations.newCart(customerId));
+            changes.accept(cart);
+            return save(cart);
+        }
+    }
+    
+    /**
+     * Reprices the carts held in memory, marking the changed ones dirty, and then
+     * the documents in MongoDB, so a later flush never writes back an old price.
+     */
+    @Override
+    public long repriceItems(Map<String, BigDecimal> unitPriceByProductId) {
+        List<String> customerIds;
+        synchronized (this) {
+            Set<String> cached = new LinkedHashSet<>(dirty.keySet());
+            cached.addAll(carts.keySet());
+            customerIds = new ArrayList<>(cached);
+        }
+        long changed = 0;
+        for (String customerId : customerIds) {
+            synchronized (lockFor(customerId)) {
+                synchronized (this) {
+                    Cart cached = cachedCart(customerId);
+                    if (cached == null) {
+                        continue;
+                    }
+                    Cart repriced = copy(cached);
+                    if (CartMutations.repriceItems(repriced, unitPriceByProductId)) {
+                        replaceCached(customerId, repriced);
+                        changed++;
+                    }
+                }
+            }
+        }
+        return changed + cartRepository.repriceItems(unitPriceByProductId);
+    }
+    
+    /**
+     * Removes the lines from cached and unflushed carts first and then from the
+     * documents in MongoDB, so a later flush never writes the lines back.
+     */
+    @Override
+    public long removeItemsForProducts(Collection<String> productIds) {
+        List<String> customerIds;
+        synchronized (this) {
+            Set<String> cached = new LinkedHashSet<>(dirty.keySet());
+            cached.addAll(carts.keySet());
+            customerIds = new ArrayList<>(cached);
+        }
+        Set<String> removed = Set.copyOf(productIds);
+        long changed = 0;
+        for (String customerId : customerIds) {
+            synchronized (lockFor(customerId)) {
+                synchronized (this) {
+                    Cart cached = cachedCart(customerId);
+                    if (cached == null) {
+                        continue;
+                    }
+                    Cart compacted = copy(cached);
+                    if (CartMutations.removeItems(compacted, removed)) {
+                        replaceCached(customerId, compacted);
+                        changed++;
+                    }
+                }
+            }
+        }
+        return changed + cartRepository.removeItemsForProducts(productIds);
+    }
+    
+    // Bulk updates already wrote MongoDB; a write-through cache only needs the new copy
+    private void replaceCached(String customerId, Cart cart) {
+        carts.put(customerId, cart);
+        if (durability == CartDurability.BATCHED) {
+            dirty.put(customerId, cart);
+        }
+    }
+    
+    private int stripeOf(String customerId) {
+        return Math.floorMod(customerId.hashCode(), customerLocks.length);
+    }
+    
+    private Object lockFor(String customerId) {
+        return customerLocks[stripeOf(customerId)];
+    }
+    
+    /**
+     * Writes pending deletes and then dirty carts, one lock stripe at a time and
+     * in batches within a stripe. Carts that fail to save stay dirty.
+     */
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        List<List<String>> customersByStripe = new ArrayList<>(customerLocks.length);
+        for (int i = 0; i < customerLocks.length; i++) {
+            customersByStripe.add(new ArrayList<>());
+        }
+        synchronized (this) {
+            if (deleted.isEmpty() && dirty.isEmpty()) {
+                return;
+            }
+            Set<String> pending = new LinkedHashSet<>(deleted);
+            pending.addAll(dirty.keySet());
+            for (String customerId : pending) {
+                customersByStripe.get(stripeOf(customerId)).add(customerId);
+            }
+        }
+        
+        int flushed = 0;
+        for (int stripe = 0; stripe < customerLocks.length; stripe++) {
+            List<String> customerIds = customersByStripe.get(stripe);
+            if (!customerIds.isEmpty()) {
+                synchronized (customerLocks[stripe]) {
+                    flushed += flushStripe(customerIds);
+                }
+            }
+        }
+        log.debug("Flushed {} carts", flushed);
+    }
+    
+    /**
+     * Flushes the given customers of one stripe; the caller holds the stripe, so
+     * their pending state cannot change until the writes are done.
+     */
+    private int flushStripe(List<String> customerIds) {
+        List<String> deletes = new ArrayList<>();
+        List<Cart> saves = new ArrayList<>();
+        synchronized (this) {
+            for (String customerId : customerIds) {
+                if (deleted.contains(customerId)) {
+                    deletes.add(customerId);
+                }
+                Cart cart = dirty.remove(customerId);
+                if (cart != null) {
+                    saves.add(cart);
+                }
+            }
+        }
+        
+        try {
+            // Deletes go first so a cart recreated after a clear never meets its old document
+            for (String customerId : deletes) {
+                deleteStored(customerId);
+            }
+            for (int from = 0; from < saves.size(); from += batchSize) {
+                List<Cart> batch = saves.subList(from, Math.min(from + batchSize, saves.size()));
+                cartRepository.saveAll(batch);
+            }
+            return saves.size();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush carts of {} customers, will retry", customerIds.size(), e);
+            // Saving a cart twice is harmless, so everything taken from this stripe is retried
+            synchronized (this) {
+                for (Cart cart : saves) {
+                    dirty.putIfAbsent(cart.getCustomerId(), cart);
+                }
+            }
+            return 0;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    /**
+     * Deletes the stored cart and then clears the pending delete; the caller holds
+     * the customer's stripe. The marker stays while the delete runs so reads never
+     * load the old document.
+     */
+    private void deleteStored(String customerId) {
+        cartRepository.deleteByCustomerId(customerId);
+        synchronized (this) {
+            deleted.remove(customerId);
+        }
+    }
+    
+    private Cart cachedCart(String customerId) {
+        Cart cart = dirty.get(customerId);
+        return cart != null ? cart : carts.get(customerId);
+    }
+    
+    private static Cart copy(Cart cart) {
+        List<Cart.CartItem> items = new ArrayList<>(cart.getItems().size());
+        for (Cart.CartItem item : cart.getItems()) {
+            items.add(new Cart.CartItem(item.getProductId(), item.getProductName(), item.getProductCategory(),
+                    item.getQuantity(), item.getUnitPrice(), item.getTotalPrice(), item.getImageUrl()));
+        }
+        return new Cart(cart.getId(), cart.getCustomerId(), items, cart.getTotalAmount(), cart.getTotalItems(),
+                cart.getVersion(), cart.getCreatedAt(), cart.getUpdatedAt());
+    }
+}
\ No newline at end of file